@@ -0,0 +1,55 @@
+package com.challenge.verticallogistics.benchmark;
+
+import com.challenge.verticallogistics.model.OrderLine;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.normalizer.OrderNormalizer;
+import com.challenge.verticallogistics.parser.FixedWidthOrderFileParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalization of already parsed lines, the step formerly done by
+ * OrderProcessingServiceImpl.normalizeOrderLines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NormalizeBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int lines;
+
+    private List<OrderLine> orderLines;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(OrderFileGenerator.generate(lines))) {
+            orderLines = new FixedWidthOrderFileParser().parseOrderFile(inputStream);
+        }
+    }
+
+    @Benchmark
+    public List<User> normalizeOrderLines() {
+        OrderNormalizer normalizer = new OrderNormalizer();
+        orderLines.forEach(normalizer);
+        return normalizer.toUsers();
+    }
+}
@@ -0,0 +1,83 @@
+package com.challenge.verticallogistics.benchmark;
+
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.normalizer.OrderNormalizer;
+import com.challenge.verticallogistics.parser.MappedOrderFileParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic legacy order files. Every user has about five orders of about
+ * four products each, spread over four years of purchase dates. Files are cached in
+ * the temp directory by line count, so the larger sizes are only written once.
+ */
+public final class OrderFileGenerator {
+
+    private static final String[] FIRST_NAMES = {"Palmer", "Bobbie", "Ken", "Zarelli", "Medeiros", "Ana", "Joao", "Maria"};
+    private static final String[] LAST_NAMES = {"Prosacco", "Batz", "Wintheiser", "Silva", "Souza", "Oliveira", "Lima"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final int DATE_SPAN_DAYS = 4 * 365;
+    private static final DateTimeFormatter LEGACY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private OrderFileGenerator() {
+    }
+
+    public static Path generate(int lines) throws IOException {
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "vertical-logistics-orders-" + lines + ".txt");
+        if (Files.exists(file)) {
+            return file;
+        }
+
+        Path temporary = Files.createTempFile("vertical-logistics-orders-", ".tmp");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.US_ASCII)) {
+            long userId = 0;
+            long orderId = 0;
+            String name = null;
+            LocalDate date = null;
+
+            for (int line = 0; line < lines; line++) {
+                if (line % 20 == 0) {
+                    userId++;
+                    name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                }
+                if (line % 4 == 0) {
+                    orderId++;
+                    date = FIRST_DATE.plusDays(random.nextInt(DATE_SPAN_DAYS));
+                }
+                long productId = 1 + random.nextInt(10_000);
+                long cents = 100 + random.nextInt(500_000);
+
+                writer.write(String.format("%010d%45s%010d%010d%12s%s%n",
+                        userId, name, orderId, productId,
+                        cents / 100 + "." + String.format("%02d", cents % 100),
+                        date.format(LEGACY_DATE_FORMAT)));
+            }
+        }
+
+        Files.move(temporary, file);
+        return file;
+    }
+
+    public static List<User> normalizedUsers(int lines) throws IOException {
+        OrderNormalizer normalizer = new OrderNormalizer();
+        new MappedOrderFileParser().parseOrderFile(generate(lines), normalizer);
+        return normalizer.toUsers();
+    }
+
+    public static LocalDate firstDate() {
+        return FIRST_DATE;
+    }
+
+    public static int dateSpanDays() {
+        return DATE_SPAN_DAYS;
+    }
+}
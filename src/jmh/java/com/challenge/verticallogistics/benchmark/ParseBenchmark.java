@@ -0,0 +1,96 @@
+package com.challenge.verticallogistics.benchmark;
+
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.model.OrderLine;
+import com.challenge.verticallogistics.normalizer.OrderNormalizer;
+import com.challenge.verticallogistics.normalizer.StripedOrderAggregator;
+import com.challenge.verticallogistics.parser.FixedWidthOrderFileParser;
+import com.challenge.verticallogistics.parser.MappedOrderFileParser;
+import com.challenge.verticallogistics.parser.ParallelOrderFileParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParseBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int lines;
+
+    private Path file;
+    private ForkJoinPool pool;
+    private FixedWidthOrderFileParser streamParser;
+    private MappedOrderFileParser mappedParser;
+    private ParallelOrderFileParser parallelParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = OrderFileGenerator.generate(lines);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        streamParser = new FixedWidthOrderFileParser();
+        mappedParser = new MappedOrderFileParser();
+        parallelParser = new ParallelOrderFileParser(new IngestionProperties(), pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<OrderLine> streamParserToList() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return streamParser.parseOrderFile(inputStream);
+        }
+    }
+
+    @Benchmark
+    public void mappedParserDecodeOnly(Blackhole blackhole) {
+        mappedParser.parseOrderFile(file, (userId, userName, orderId, productId, valueCents, purchaseDate) -> {
+            blackhole.consume(userId);
+            blackhole.consume(userName);
+            blackhole.consume(orderId);
+            blackhole.consume(productId);
+            blackhole.consume(valueCents);
+            blackhole.consume(purchaseDate);
+        });
+    }
+
+    @Benchmark
+    public OrderNormalizer mappedParserNormalized() {
+        OrderNormalizer normalizer = new OrderNormalizer();
+        mappedParser.parseOrderFile(file, normalizer);
+        return normalizer;
+    }
+
+    @Benchmark
+    public StripedOrderAggregator parallelParserAggregated() {
+        StripedOrderAggregator aggregator = new StripedOrderAggregator(pool.getParallelism(), new LongAdder());
+        parallelParser.parseOrderFile(file, aggregator::chunk);
+        return aggregator;
+    }
+}
@@ -0,0 +1,90 @@
+package com.challenge.verticallogistics.benchmark;
+
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.repository.InMemoryOrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RepositoryQueryBenchmark {
+
+    private static final int WINDOW_DAYS = 30;
+    private static final int PAGE_SIZE = 100;
+    private static final int LOOKUP_BATCH = 1000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int lines;
+
+    private InMemoryOrderRepository repository;
+    private long orderCount;
+
+    @Setup
+    public void setUp() throws IOException {
+        repository = new InMemoryOrderRepository();
+        repository.replaceAll(OrderFileGenerator.normalizedUsers(lines));
+        orderCount = lines / 4;
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<User> findByOrderId() {
+        return repository.findByOrderId(1 + ThreadLocalRandom.current().nextLong(orderCount));
+    }
+
+    @Benchmark
+    public List<User> findByOrderIds() {
+        List<Long> orderIds = new ArrayList<>(LOOKUP_BATCH);
+        for (int i = 0; i < LOOKUP_BATCH; i++) {
+            orderIds.add(1 + ThreadLocalRandom.current().nextLong(orderCount));
+        }
+        return repository.findByOrderIds(orderIds);
+    }
+
+    @Benchmark
+    public List<User> findByDateRange() {
+        LocalDate start = randomStart();
+        return repository.findByDateRange(start, start.plusDays(WINDOW_DAYS));
+    }
+
+    @Benchmark
+    public OrderPage findPage() {
+        return repository.findPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public OrderPage findPageByDateRange() {
+        LocalDate start = randomStart();
+        return repository.findPageByDateRange(start, start.plusDays(WINDOW_DAYS), null, PAGE_SIZE);
+    }
+
+    private LocalDate randomStart() {
+        int offset = ThreadLocalRandom.current().nextInt(OrderFileGenerator.dateSpanDays() - WINDOW_DAYS);
+        return OrderFileGenerator.firstDate().plusDays(offset);
+    }
+}
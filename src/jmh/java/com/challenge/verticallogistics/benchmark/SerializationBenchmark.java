@@ -0,0 +1,125 @@
+package com.challenge.verticallogistics.benchmark;
+
+import com.challenge.verticallogistics.cache.OrderQueryCache;
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.config.QueryCacheProperties;
+import com.challenge.verticallogistics.metrics.OrderMetrics;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.parser.FixedWidthOrderFileParser;
+import com.challenge.verticallogistics.parser.MappedOrderFileParser;
+import com.challenge.verticallogistics.parser.ParallelOrderFileParser;
+import com.challenge.verticallogistics.repository.InMemoryOrderRepository;
+import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.impl.OrderProcessingServiceImpl;
+import com.challenge.verticallogistics.writer.OrderJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-dataset response cost: DTO mapping plus Jackson databind, as done by
+ * GET /api/orders, against the streaming writer behind GET /api/orders/stream,
+ * with and without JSON fragments attached at upload, and a query cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SerializationBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int lines;
+
+    private ObjectMapper objectMapper;
+    private InMemoryOrderRepository repository;
+    private OrderProcessingService service;
+    private OrderProcessingService cachedService;
+    private OrderJsonWriter orderJsonWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        repository = new InMemoryOrderRepository();
+        repository.replaceAll(OrderFileGenerator.normalizedUsers(lines));
+        orderJsonWriter = new OrderJsonWriter(objectMapper);
+        service = service(false);
+        cachedService = service(true);
+    }
+
+    private OrderProcessingService service(boolean cached) {
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        QueryCacheProperties queryCacheProperties = new QueryCacheProperties();
+        queryCacheProperties.setEnabled(cached);
+        queryCacheProperties.setMaxWeight(Long.MAX_VALUE);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new OrderProcessingServiceImpl(
+                new FixedWidthOrderFileParser(),
+                new MappedOrderFileParser(),
+                new ParallelOrderFileParser(ingestionProperties, ForkJoinPool.commonPool()),
+                repository,
+                ingestionProperties,
+                orderJsonWriter,
+                new OrderMetrics(meterRegistry, repository),
+                new OrderQueryCache(repository, queryCacheProperties, meterRegistry));
+    }
+
+    @Benchmark
+    public Object mapToDtos() {
+        return service.getAllOrders();
+    }
+
+    @Benchmark
+    public Object cachedDtos() {
+        return cachedService.getAllOrders();
+    }
+
+    @Benchmark
+    public void mapAndSerializeDtos() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), service.getAllOrders());
+    }
+
+    @Benchmark
+    public void streamingWriter() throws IOException {
+        orderJsonWriter.writeArray(repository.findAll(), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void streamingWriterFragments(Fragments fragments) throws IOException {
+        orderJsonWriter.writeArray(fragments.repository.findAll(), OutputStream.nullOutputStream());
+    }
+
+    /**
+     * A second copy of the dataset built with fragments, as stored by an upload
+     * with orders.ingestion.json-fragments enabled.
+     */
+    @State(Scope.Benchmark)
+    public static class Fragments {
+
+        private InMemoryOrderRepository repository;
+
+        @Setup
+        public void setUp(SerializationBenchmark benchmark) throws IOException {
+            List<User> users = OrderFileGenerator.normalizedUsers(benchmark.lines);
+            repository = new InMemoryOrderRepository();
+            repository.replaceAll(benchmark.orderJsonWriter.withFragments(users));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.challenge.verticallogistics.cache;
+
+import com.challenge.verticallogistics.config.QueryCacheProperties;
+import com.challenge.verticallogistics.dto.response.OrderResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache of mapped query results. Keys carry the repository version, so an
+ * upload makes every earlier entry unreachable; those entries are dropped as soon
+ * as a query observes the new version. Queries running while a write is applied
+ * bypass the cache.
+ * <p>
+ * Cached values are shared between requests and must not be modified.
+ */
+@Component
+public class OrderQueryCache {
+
+    private final OrderRepository orderRepository;
+    private final Cache<QueryKey, Weighted> cache;
+    private volatile long cachedVersion;
+
+    public OrderQueryCache(OrderRepository orderRepository, QueryCacheProperties properties, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.cachedVersion = orderRepository.version();
+        this.cache = properties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumWeight(properties.getMaxWeight())
+                        .weigher((QueryKey key, Weighted value) -> value.weight())
+                        .recordStats()
+                        .build()
+                : null;
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders.query");
+        }
+    }
+
+    /**
+     * Returns the cached result of the query with the given type and arguments for the
+     * current dataset, running {@code query} on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String type, Supplier<T> query, ToIntFunction<T> weigher, Object... arguments) {
+        if (cache == null) {
+            return query.get();
+        }
+
+        long version = orderRepository.version();
+        if ((version & 1) != 0) {
+            return query.get();
+        }
+        if (version != cachedVersion) {
+            cachedVersion = version;
+            cache.invalidateAll();
+        }
+
+        QueryKey key = new QueryKey(version, type, Arrays.asList(arguments));
+        return (T) cache.get(key, ignored -> {
+            T result = query.get();
+            return new Weighted(result, Math.max(1, weigher.applyAsInt(result)));
+        }).value();
+    }
+
+    /**
+     * Weighs a result by its number of users, orders and products.
+     */
+    public static int weigh(List<UserOrdersResponse> users) {
+        int weight = users.size();
+        for (UserOrdersResponse user : users) {
+            weight += user.getOrders().size();
+            for (OrderResponse order : user.getOrders()) {
+                weight += order.getProducts().size();
+            }
+        }
+        return weight;
+    }
+
+    private record QueryKey(long version, String type, List<?> arguments) {
+    }
+
+    private record Weighted(Object value, int weight) {
+    }
+}
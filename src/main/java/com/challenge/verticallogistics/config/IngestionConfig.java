@@ -0,0 +1,40 @@
+package com.challenge.verticallogistics.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class IngestionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool ingestionPool(IngestionProperties ingestionProperties) {
+        return new ForkJoinPool(Math.max(1, ingestionProperties.getParallelism()));
+    }
+
+    /**
+     * Runs asynchronous upload jobs. The queue is bounded, so submissions beyond it
+     * are rejected instead of piling spooled files up on disk.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor uploadJobExecutor(IngestionProperties ingestionProperties) {
+        IngestionProperties.Jobs jobs = ingestionProperties.getJobs();
+        int threads = Math.max(1, jobs.getThreads());
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "upload-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, jobs.getQueueCapacity())), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
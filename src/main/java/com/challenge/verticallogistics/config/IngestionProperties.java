@@ -0,0 +1,35 @@
+package com.challenge.verticallogistics.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "orders.ingestion")
+public class IngestionProperties {
+
+    private ParserMode parser = ParserMode.PARALLEL;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private DataSize chunkSize = DataSize.ofMegabytes(16);
+    /**
+     * Encodes each order's JSON once at upload so streamed responses copy it. Only
+     * applies to repositories that keep the uploaded order instances.
+     */
+    private boolean jsonFragments = false;
+    private Jobs jobs = new Jobs();
+
+    @Data
+    public static class Jobs {
+        private int threads = 1;
+        private int queueCapacity = 8;
+        private int history = 100;
+    }
+
+    public enum ParserMode {
+        STREAM,
+        MAPPED,
+        PARALLEL
+    }
+}
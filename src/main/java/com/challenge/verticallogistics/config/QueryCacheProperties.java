@@ -0,0 +1,15 @@
+package com.challenge.verticallogistics.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "orders.query-cache")
+public class QueryCacheProperties {
+
+    private boolean enabled = true;
+    /** Upper bound of the summed users, orders and products of all cached results. */
+    private long maxWeight = 2_000_000;
+}
@@ -0,0 +1,24 @@
+package com.challenge.verticallogistics.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "orders.repository")
+public class RepositoryProperties {
+
+    private RepositoryType type = RepositoryType.MEMORY;
+    private Path mappedPath = Path.of("data", "orders.snapshot");
+    private int batchSize = 1000;
+
+    public enum RepositoryType {
+        MEMORY,
+        COLUMNAR,
+        MAPPED,
+        JDBC
+    }
+}
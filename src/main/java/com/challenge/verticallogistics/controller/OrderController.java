@@ -1,8 +1,18 @@
 package com.challenge.verticallogistics.controller;
 
 import com.challenge.verticallogistics.dto.request.DateRangeRequest;
+import com.challenge.verticallogistics.dto.request.OrderLookupRequest;
+import com.challenge.verticallogistics.dto.request.OrderPageRequest;
+import com.challenge.verticallogistics.dto.response.OrderLookupResponse;
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersPageResponse;
 import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
 import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.UploadJobService;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.writer.OrderStream;
+import com.challenge.verticallogistics.writer.StreamFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +20,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -24,11 +44,14 @@ import java.util.List;
 public class OrderController {
 
     private final OrderProcessingService orderProcessingService;
+    private final UploadJobService uploadJobService;
 
     @PostMapping(value = "/upload", consumes = "multipart/form-data")
     @Operation(
             summary = "Carregar e processar arquivo de pedidos",
-            description = "Carrega um arquivo contendo dados de pedidos em formato de largura fixa e retorna os pedidos processados e normalizados"
+            description = "Carrega um arquivo contendo dados de pedidos em formato de largura fixa e retorna os pedidos processados e normalizados. " +
+                    "No modo APPEND os pedidos e produtos do arquivo são mesclados aos já armazenados em vez de substituí-los. " +
+                    "Arquivos compactados em gzip ou zstd são detectados e descompactados automaticamente"
     )
     @ApiResponse(
             responseCode = "200",
@@ -37,21 +60,64 @@ public class OrderController {
     )
     public ResponseEntity<List<UserOrdersResponse>> uploadFile(
             @Parameter(description = "Arquivo de pedidos", required = true)
-            @RequestParam("file") MultipartFile file
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "REPLACE substitui todos os pedidos; APPEND mescla o arquivo aos pedidos existentes")
+            @RequestParam(value = "mode", defaultValue = "REPLACE") UploadMode mode
     ) {
-        List<UserOrdersResponse> response = orderProcessingService.processOrderFile(file);
+        List<UserOrdersResponse> response = orderProcessingService.processOrderFile(file, mode);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/upload/async", consumes = "multipart/form-data")
+    @Operation(
+            summary = "Enviar arquivo de pedidos para processamento assíncrono",
+            description = "Recebe o arquivo, opcionalmente compactado em gzip ou zstd, e retorna imediatamente o identificador do job. " +
+                    "O processamento acontece em segundo plano e o andamento pode ser consultado em /upload/jobs/{jobId}"
+    )
+    @ApiResponse(
+            responseCode = "202",
+            description = "Arquivo recebido e job enfileirado",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadJobResponse.class))
+    )
+    public ResponseEntity<UploadJobResponse> uploadFileAsync(
+            @Parameter(description = "Arquivo de pedidos", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "REPLACE substitui todos os pedidos; APPEND mescla o arquivo aos pedidos existentes")
+            @RequestParam(value = "mode", defaultValue = "REPLACE") UploadMode mode
+    ) {
+        UploadJobResponse response = uploadJobService.submit(file, mode);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/upload/jobs/" + response.getJob_id()))
+                .body(response);
+    }
+
+    @GetMapping("/upload/jobs/{jobId}")
+    @Operation(
+            summary = "Consultar job de upload",
+            description = "Retorna o status, as linhas processadas, a vazão e o eventual erro de um upload assíncrono"
+    )
+    public ResponseEntity<UploadJobResponse> getUploadJob(@PathVariable String jobId) {
+        return uploadJobService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
 
     @GetMapping
     @Operation(
             summary = "Obter todos os pedidos",
             description = "Recupera todos os pedidos no sistema"
     )
-    public ResponseEntity<List<UserOrdersResponse>> getAllOrders() {
-        List<UserOrdersResponse> response = orderProcessingService.getAllOrders();
-        return ResponseEntity.ok(response);
+    @ApiResponse(
+            responseCode = "200",
+            description = "Pedidos encontrados",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserOrdersResponse.class))
+    )
+    public ResponseEntity<?> getAllOrders(WebRequest webRequest) {
+        if (orderProcessingService.writesJsonFragments()) {
+            return writeFragments(new DateRangeRequest(), webRequest);
+        }
+        return tagged(webRequest, StreamFormat.JSON, null, orderProcessingService::getAllOrders);
     }
 
     @GetMapping("/filter")
@@ -59,19 +125,141 @@ public class OrderController {
             summary = "Filtrar pedidos",
             description = "Filtrar pedidos por ID do pedido ou intervalo de datas"
     )
-    public ResponseEntity<List<UserOrdersResponse>> filterOrders(@Valid DateRangeRequest request) {
-        List<UserOrdersResponse> response;
-
-        if (request.getOrderId() != null && !request.getOrderId().isEmpty()) {
-            response = orderProcessingService.getOrdersByOrderId(Long.parseLong(request.getOrderId()));
-        } else if (request.getStartDate() != null || request.getEndDate() != null) {
-            response = orderProcessingService.getOrdersByDateRange(
-                    request.getStartDate(),
-                    request.getEndDate());
-        } else {
-            response = orderProcessingService.getAllOrders();
+    @ApiResponse(
+            responseCode = "200",
+            description = "Pedidos encontrados",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserOrdersResponse.class))
+    )
+    public ResponseEntity<?> filterOrders(@Valid DateRangeRequest request, WebRequest webRequest) {
+        if (orderProcessingService.writesJsonFragments()) {
+            return writeFragments(request, webRequest);
         }
+        return tagged(webRequest, StreamFormat.JSON, null, () -> {
+            if (request.getOrderId() != null && !request.getOrderId().isEmpty()) {
+                return orderProcessingService.getOrdersByOrderId(Long.parseLong(request.getOrderId()));
+            } else if (request.getStartDate() != null || request.getEndDate() != null) {
+                return orderProcessingService.getOrdersByDateRange(
+                        request.getStartDate(),
+                        request.getEndDate());
+            }
+            return orderProcessingService.getAllOrders();
+        });
+    }
 
+    @PostMapping("/lookup")
+    @Operation(
+            summary = "Buscar pedidos por lista de IDs",
+            description = "Resolve até 100000 IDs de pedido em uma única consulta e retorna os pedidos encontrados agrupados por usuário, " +
+                    "junto com os IDs que não existem"
+    )
+    public ResponseEntity<OrderLookupResponse> lookupOrders(@Valid @RequestBody OrderLookupRequest request) {
+        OrderLookupResponse response = orderProcessingService.getOrdersByOrderIds(request.getOrder_ids());
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/page")
+    @Operation(
+            summary = "Paginar pedidos",
+            description = "Retorna até 'limit' pedidos após o cursor informado, opcionalmente filtrados por intervalo de datas. O campo next_cursor da resposta aponta para a próxima página"
+    )
+    public ResponseEntity<UserOrdersPageResponse> getOrdersPage(@Valid OrderPageRequest request, WebRequest webRequest) {
+        return tagged(webRequest, StreamFormat.JSON, null, () -> orderProcessingService.getOrdersPage(
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getCursor(),
+                request.getLimit()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Transmitir pedidos em NDJSON",
+            description = "Transmite os pedidos, com os mesmos filtros de /filter, como um usuário por linha sem montar a resposta completa em memória"
+    )
+    public ResponseEntity<StreamingResponseBody> streamOrdersAsNdjson(@Valid DateRangeRequest request, WebRequest webRequest) {
+        return streamOrders(request, webRequest, StreamFormat.NDJSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Transmitir pedidos em JSON",
+            description = "Transmite os pedidos, com os mesmos filtros de /filter, como um array JSON escrito diretamente na resposta"
+    )
+    public ResponseEntity<StreamingResponseBody> streamOrdersAsJson(@Valid DateRangeRequest request, WebRequest webRequest) {
+        return streamOrders(request, webRequest, StreamFormat.JSON, MediaType.APPLICATION_JSON);
+    }
+
+    @GetMapping(value = {"", "/filter", "/stream"}, produces = MediaType.APPLICATION_CBOR_VALUE)
+    @Operation(
+            summary = "Transmitir pedidos em CBOR",
+            description = "Com Accept: application/cbor, retorna os pedidos, com os mesmos filtros de /filter, em CBOR com a mesma estrutura do JSON. " +
+                    "Valores saem como inteiros em centavos (total_cents, value_cents) e datas como dias desde 1970-01-01 (epoch_day)"
+    )
+    public ResponseEntity<StreamingResponseBody> streamOrdersAsCbor(@Valid DateRangeRequest request, WebRequest webRequest) {
+        return streamOrders(request, webRequest, StreamFormat.CBOR, MediaType.APPLICATION_CBOR);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamOrders(DateRangeRequest request, WebRequest webRequest,
+                                                               StreamFormat format, MediaType mediaType) {
+        // The query runs here, not in the async body, so the ETag describes what is written
+        return tagged(webRequest, format, mediaType, () -> {
+            OrderStream orders = orderProcessingService.streamOrders(request, format);
+            return orders::writeTo;
+        });
+    }
+
+    /**
+     * Builds the JSON array from the fragments stored with the orders. The bytes are
+     * collected before returning, since a streaming body cannot share the declared type
+     * of the mapped response.
+     */
+    private ResponseEntity<?> writeFragments(DateRangeRequest request, WebRequest webRequest) {
+        return tagged(webRequest, StreamFormat.JSON, MediaType.APPLICATION_JSON, () -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try {
+                orderProcessingService.streamOrders(request, StreamFormat.JSON).writeTo(body);
+            } catch (IOException e) {
+                throw new OrderProcessingException("Failed to write orders", e);
+            }
+            return body.toByteArray();
+        });
+    }
+
+    /**
+     * Answers 304 when the client already holds this representation of the current
+     * dataset, before any query runs. Otherwise the response only gets the ETag if the
+     * dataset did not change while {@code query} ran, so a tag never labels other data.
+     */
+    private <T> ResponseEntity<T> tagged(WebRequest webRequest, StreamFormat format, MediaType mediaType,
+                                         Supplier<T> query) {
+        String datasetTag = orderProcessingService.datasetTag();
+        ETag eTag = datasetTag == null ? null : ETag.create(datasetTag + "-" + format.name().toLowerCase());
+        if (eTag != null && matches(webRequest, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.formattedTag()).build();
+        }
+
+        T body = query.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (mediaType != null) {
+            response.contentType(mediaType);
+        }
+        if (eTag != null && datasetTag.equals(orderProcessingService.datasetTag())) {
+            response.eTag(eTag.formattedTag());
+        }
+        return response.body(body);
+    }
+
+    private static boolean matches(WebRequest webRequest, ETag eTag) {
+        String[] ifNoneMatch = webRequest.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (ETag candidate : ETag.parse(header)) {
+                if (candidate.isWildcard() || candidate.compare(eTag, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
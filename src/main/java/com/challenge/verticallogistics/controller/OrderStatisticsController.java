@@ -0,0 +1,66 @@
+package com.challenge.verticallogistics.controller;
+
+import com.challenge.verticallogistics.dto.request.OrderStatsRequest;
+import com.challenge.verticallogistics.dto.response.RevenueResponse;
+import com.challenge.verticallogistics.dto.response.TopProductResponse;
+import com.challenge.verticallogistics.dto.response.TopUserResponse;
+import com.challenge.verticallogistics.service.OrderStatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+@Tag(name = "API de Estatísticas", description = "Agregações de faturamento calculadas na ingestão dos pedidos")
+public class OrderStatisticsController {
+
+    private final OrderStatisticsService orderStatisticsService;
+
+    @GetMapping("/revenue")
+    @Operation(
+            summary = "Faturamento por período",
+            description = "Retorna o total faturado e a quantidade de pedidos por dia (granularity=DAY) ou por mês (granularity=MONTH), opcionalmente filtrados por intervalo de datas"
+    )
+    public ResponseEntity<List<RevenueResponse>> getRevenue(@Valid OrderStatsRequest request) {
+        List<RevenueResponse> response = orderStatisticsService.getRevenue(
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getGranularity());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/top-users")
+    @Operation(
+            summary = "Usuários que mais compraram",
+            description = "Retorna os 'limit' usuários com maior total gasto, opcionalmente filtrados por intervalo de datas"
+    )
+    public ResponseEntity<List<TopUserResponse>> getTopUsers(@Valid OrderStatsRequest request) {
+        List<TopUserResponse> response = orderStatisticsService.getTopUsers(
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getLimit());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/top-products")
+    @Operation(
+            summary = "Produtos mais vendidos",
+            description = "Retorna os 'limit' produtos com maior faturamento (by=REVENUE) ou quantidade vendida (by=COUNT), opcionalmente filtrados por intervalo de datas"
+    )
+    public ResponseEntity<List<TopProductResponse>> getTopProducts(@Valid OrderStatsRequest request) {
+        List<TopProductResponse> response = orderStatisticsService.getTopProducts(
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getLimit(),
+                request.getBy());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,15 @@
+package com.challenge.verticallogistics.dto.request;
+
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class OrderLookupRequest {
+    @NotEmpty
+    @Size(max = 100000)
+    private List<@NotNull Long> order_ids;
+}
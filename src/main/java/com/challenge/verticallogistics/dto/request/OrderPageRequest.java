@@ -0,0 +1,17 @@
+package com.challenge.verticallogistics.dto.request;
+
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class OrderPageRequest {
+    private String cursor;
+    @Min(1)
+    @Max(10000)
+    private int limit = 100;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
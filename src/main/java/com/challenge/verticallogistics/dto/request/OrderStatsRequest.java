@@ -0,0 +1,20 @@
+package com.challenge.verticallogistics.dto.request;
+
+
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class OrderStatsRequest {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    @Min(1)
+    @Max(1000)
+    private int limit = 10;
+    private RevenueGranularity granularity = RevenueGranularity.DAY;
+    private ProductRanking by = ProductRanking.REVENUE;
+}
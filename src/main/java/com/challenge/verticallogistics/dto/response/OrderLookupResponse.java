@@ -0,0 +1,17 @@
+package com.challenge.verticallogistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLookupResponse {
+    private List<UserOrdersResponse> users;
+    private List<Long> missing_order_ids;
+}
@@ -0,0 +1,16 @@
+package com.challenge.verticallogistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueResponse {
+    private String period;
+    private String total;
+    private Long orders;
+}
@@ -0,0 +1,16 @@
+package com.challenge.verticallogistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopProductResponse {
+    private Long product_id;
+    private String revenue;
+    private Long count;
+}
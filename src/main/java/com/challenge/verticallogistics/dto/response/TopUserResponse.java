@@ -0,0 +1,17 @@
+package com.challenge.verticallogistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopUserResponse {
+    private Long user_id;
+    private String name;
+    private String total;
+    private Long orders;
+}
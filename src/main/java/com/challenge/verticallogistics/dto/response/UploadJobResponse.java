@@ -0,0 +1,27 @@
+package com.challenge.verticallogistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadJobResponse {
+    private String job_id;
+    private String status;
+    private String mode;
+    private Long bytes;
+    private Long lines_processed;
+    private Long lines_per_second;
+    private Long users;
+    private Long orders;
+    private String error;
+    private Instant submitted_at;
+    private Instant started_at;
+    private Instant finished_at;
+}
@@ -0,0 +1,101 @@
+package com.challenge.verticallogistics.metrics;
+
+import com.challenge.verticallogistics.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+@Component
+public class OrderMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter bytesRead;
+    private final Counter linesParsed;
+    private final DistributionSummary usersPerUpload;
+    private final DistributionSummary ordersPerUpload;
+    private final DistributionSummary productsPerUpload;
+
+    public OrderMetrics(MeterRegistry meterRegistry, OrderRepository orderRepository) {
+        this.meterRegistry = meterRegistry;
+        this.bytesRead = Counter.builder("orders.ingestion.bytes")
+                .description("Bytes of order files read")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.linesParsed = Counter.builder("orders.ingestion.lines")
+                .description("Order file lines parsed")
+                .register(meterRegistry);
+        this.usersPerUpload = uploadSummary("users", meterRegistry);
+        this.ordersPerUpload = uploadSummary("orders", meterRegistry);
+        this.productsPerUpload = uploadSummary("products", meterRegistry);
+
+        Gauge.builder("orders.repository.users", orderRepository, OrderRepository::userCount)
+                .description("Users currently stored")
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops an ingestion timer for one stage of an upload: parse, assemble, store, map or total.
+     */
+    public void stopIngestionStage(Timer.Sample sample, String stage) {
+        sample.stop(Timer.builder("orders.ingestion.duration")
+                .description("Time spent in each stage of an upload")
+                .tag("stage", stage)
+                .register(meterRegistry));
+    }
+
+    public void recordUpload(long bytes, long lines, long users, long orders) {
+        bytesRead.increment(bytes);
+        linesParsed.increment(lines);
+        usersPerUpload.record(users);
+        ordersPerUpload.record(orders);
+        productsPerUpload.record(lines);
+    }
+
+    /**
+     * Times an order query by filter type and records how many users it returned.
+     */
+    public <T> List<T> timeQuery(String type, Supplier<List<T>> query) {
+        return timeQuery(type, query, List::size);
+    }
+
+    public <T> T timeQuery(String type, Supplier<T> query, ToIntFunction<T> usersReturned) {
+        T result = time(type, query);
+        DistributionSummary.builder("orders.query.users")
+                .description("Users returned per order query")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(usersReturned.applyAsInt(result));
+        return result;
+    }
+
+    /**
+     * Times a query by type without recording its result size.
+     */
+    public <T> T time(String type, Supplier<T> query) {
+        Timer.Sample sample = startTimer();
+        T result = query.get();
+        sample.stop(Timer.builder("orders.query.duration")
+                .description("Order query latency")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        return result;
+    }
+
+    private static DistributionSummary uploadSummary(String entity, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("orders.ingestion." + entity)
+                .description("Normalized " + entity + " per upload")
+                .register(meterRegistry);
+    }
+}
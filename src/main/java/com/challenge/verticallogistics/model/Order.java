@@ -1,9 +1,12 @@
 package com.challenge.verticallogistics.model;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -11,7 +14,16 @@ import java.util.List;
 @Builder
 public class Order {
     private Long orderId;
-    private BigDecimal total;
+    private long totalCents;
     private LocalDate date;
     private List<Product> products;
+
+    /**
+     * The order already encoded as UTF-8 JSON, set through the builder at ingestion
+     * when enabled. Derived from the fields above, so it takes no part in equality.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private byte[] jsonFragment;
 }
\ No newline at end of file
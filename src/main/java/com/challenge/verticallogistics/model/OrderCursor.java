@@ -0,0 +1,35 @@
+package com.challenge.verticallogistics.model;
+
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import lombok.Value;
+
+/**
+ * Position of the last order returned in a page. It records the full
+ * (date, user, order) key, so it can resume both user-ordered and date-ordered scans.
+ */
+@Value
+public class OrderCursor {
+    long epochDay;
+    long userId;
+    long orderId;
+
+    public static OrderCursor of(User user, Order order) {
+        return new OrderCursor(order.getDate().toEpochDay(), user.getUserId(), order.getOrderId());
+    }
+
+    public static OrderCursor parse(String token) {
+        String[] parts = token.split(":");
+        if (parts.length != 3) {
+            throw new OrderProcessingException("Invalid cursor: " + token);
+        }
+        try {
+            return new OrderCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new OrderProcessingException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String format() {
+        return epochDay + ":" + userId + ":" + orderId;
+    }
+}
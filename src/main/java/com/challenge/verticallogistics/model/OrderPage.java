@@ -0,0 +1,11 @@
+package com.challenge.verticallogistics.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class OrderPage {
+    List<User> users;
+    OrderCursor next;
+}
@@ -0,0 +1,12 @@
+package com.challenge.verticallogistics.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+@Value
+public class PeriodRevenue {
+    LocalDate start;
+    long totalCents;
+    long orders;
+}
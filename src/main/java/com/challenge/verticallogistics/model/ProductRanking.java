@@ -0,0 +1,6 @@
+package com.challenge.verticallogistics.model;
+
+public enum ProductRanking {
+    REVENUE,
+    COUNT
+}
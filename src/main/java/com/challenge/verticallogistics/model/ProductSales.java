@@ -0,0 +1,10 @@
+package com.challenge.verticallogistics.model;
+
+import lombok.Value;
+
+@Value
+public class ProductSales {
+    long productId;
+    long revenueCents;
+    long count;
+}
@@ -0,0 +1,10 @@
+package com.challenge.verticallogistics.model;
+
+import lombok.Value;
+
+@Value
+public class UploadSummary {
+    long lines;
+    long users;
+    long orders;
+}
@@ -0,0 +1,11 @@
+package com.challenge.verticallogistics.model;
+
+import lombok.Value;
+
+@Value
+public class UserSpend {
+    long userId;
+    String name;
+    long totalCents;
+    long orders;
+}
@@ -0,0 +1,19 @@
+package com.challenge.verticallogistics.normalizer;
+
+import com.challenge.verticallogistics.model.User;
+
+import java.util.List;
+
+/**
+ * Users, orders and products folded from the lines of an order file.
+ */
+public interface NormalizedOrders {
+
+    List<User> toUsers();
+
+    long getLineCount();
+
+    long getUserCount();
+
+    long getOrderCount();
+}
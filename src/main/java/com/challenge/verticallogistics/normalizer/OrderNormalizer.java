@@ -0,0 +1,153 @@
+package com.challenge.verticallogistics.normalizer;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderLine;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.parser.OrderRecordHandler;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.MoneyUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Folds parsed lines into users, orders and products as they arrive, so a file
+ * never has to be held as a list of lines before it is normalized.
+ */
+public class OrderNormalizer implements Consumer<OrderLine>, OrderRecordHandler, NormalizedOrders {
+
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    private final Map<Long, UserAccumulator> users = new LinkedHashMap<>();
+    private final LongAdder progress;
+    private long lineCount;
+    private long orderCount;
+
+    public OrderNormalizer() {
+        this(new LongAdder());
+    }
+
+    /**
+     * @param progress receives the number of folded lines every few thousand lines
+     *                 and the remainder at {@link #onEnd()}
+     */
+    public OrderNormalizer(LongAdder progress) {
+        this.progress = progress;
+    }
+
+    @Override
+    public void accept(OrderLine line) {
+        OrderAccumulator order = orderFor(
+                Long.parseLong(line.getUserId()),
+                line.getUserName().trim(),
+                Long.parseLong(line.getOrderId()));
+
+        if (order.date == null) {
+            order.date = DateUtil.parseFromLegacyFormat(line.getPurchaseDate());
+        }
+        order.add(Long.parseLong(line.getProductId()), MoneyUtil.parseCents(line.getProductValue().trim()));
+    }
+
+    @Override
+    public void onRecord(long userId, String userName, long orderId, long productId, long valueCents, int purchaseDate) {
+        OrderAccumulator order = orderFor(userId, userName, orderId);
+
+        if (order.date == null) {
+            order.date = DateUtil.fromPackedLegacyDate(purchaseDate);
+        }
+        order.add(productId, valueCents);
+    }
+
+    /**
+     * Reports the lines folded since the last progress update.
+     */
+    @Override
+    public void onEnd() {
+        progress.add(lineCount % PROGRESS_INTERVAL);
+    }
+
+    @Override
+    public List<User> toUsers() {
+        List<User> result = new ArrayList<>(users.size());
+
+        users.values().forEach(user -> {
+            List<Order> orders = new ArrayList<>(user.orders.size());
+            user.orders.values().forEach(order -> orders.add(Order.builder()
+                    .orderId(order.orderId)
+                    .date(order.date)
+                    .totalCents(order.totalCents)
+                    .products(order.products)
+                    .build()));
+
+            result.add(User.builder()
+                    .userId(user.userId)
+                    .name(user.name)
+                    .orders(orders)
+                    .build());
+        });
+
+        return result;
+    }
+
+    @Override
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public long getUserCount() {
+        return users.size();
+    }
+
+    @Override
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    private OrderAccumulator orderFor(long userId, String userName, long orderId) {
+        if (++lineCount % PROGRESS_INTERVAL == 0) {
+            progress.add(PROGRESS_INTERVAL);
+        }
+        UserAccumulator user = users.computeIfAbsent(userId, id -> new UserAccumulator(id, userName));
+        return user.orders.computeIfAbsent(orderId, id -> {
+            orderCount++;
+            return new OrderAccumulator(id);
+        });
+    }
+
+    private static final class UserAccumulator {
+        private final long userId;
+        private final String name;
+        private final Map<Long, OrderAccumulator> orders = new LinkedHashMap<>();
+
+        private UserAccumulator(long userId, String name) {
+            this.userId = userId;
+            this.name = name;
+        }
+    }
+
+    private static final class OrderAccumulator {
+        private final long orderId;
+        private final List<Product> products = new ArrayList<>();
+        private long totalCents;
+        private LocalDate date;
+
+        private OrderAccumulator(long orderId) {
+            this.orderId = orderId;
+        }
+
+        private void add(long productId, long valueCents) {
+            totalCents += valueCents;
+            products.add(Product.builder()
+                    .productId(productId)
+                    .valueCents(valueCents)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.challenge.verticallogistics.normalizer;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.parser.OrderRecordHandler;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.LongObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Folds records from several parser threads at once into one set of users, orders
+ * and products. Users are spread over independently locked stripes of primitive
+ * keyed maps, so threads working on different users rarely meet, and every record
+ * is folded on arrival.
+ * <p>
+ * Each record is stamped with its position in the file (chunk index and line within
+ * the chunk); first-seen names and dates, and the order of users, orders and
+ * products in {@link #toUsers()}, follow that position, so the result matches a
+ * sequential parse regardless of thread scheduling.
+ */
+public class StripedOrderAggregator implements NormalizedOrders {
+
+    private static final int PROGRESS_INTERVAL = 4096;
+    private static final int MAX_STRIPES = 1 << 12;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongAdder progress;
+    private final LongAdder lineCount = new LongAdder();
+    private final LongAdder userCount = new LongAdder();
+    private final LongAdder orderCount = new LongAdder();
+
+    /**
+     * @param concurrency expected number of feeding threads; the stripe count is a
+     *                    power of two well above it to keep contention low
+     * @param progress    receives the number of folded lines every few thousand lines
+     *                    and the remainder at the end of each chunk
+     */
+    public StripedOrderAggregator(int concurrency, LongAdder progress) {
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, concurrency) * 16 - 1) << 1);
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        this.progress = progress;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the handler for the records of chunk {@code index}. A handler must be
+     * fed by one thread, in file order; handlers of different chunks may run concurrently.
+     */
+    public OrderRecordHandler chunk(int index) {
+        return new ChunkHandler((long) index << 32);
+    }
+
+    @Override
+    public List<User> toUsers() {
+        List<UserAccumulator> accumulators = new ArrayList<>((int) userCount.sum());
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.users.forEachValue(accumulators::add);
+            }
+        }
+        accumulators.sort(Comparator.comparingLong(user -> user.firstSeen));
+
+        List<User> result = new ArrayList<>(accumulators.size());
+        for (UserAccumulator user : accumulators) {
+            List<OrderAccumulator> orderAccumulators = new ArrayList<>(user.orders.size());
+            user.orders.forEachValue(orderAccumulators::add);
+            orderAccumulators.sort(Comparator.comparingLong(order -> order.firstSeen));
+
+            List<Order> orders = new ArrayList<>(orderAccumulators.size());
+            orderAccumulators.forEach(order -> orders.add(Order.builder()
+                    .orderId(order.orderId)
+                    .date(order.date)
+                    .totalCents(order.totalCents)
+                    .products(order.products())
+                    .build()));
+
+            result.add(User.builder()
+                    .userId(user.userId)
+                    .name(user.name)
+                    .orders(orders)
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public long getLineCount() {
+        return lineCount.sum();
+    }
+
+    @Override
+    public long getUserCount() {
+        return userCount.sum();
+    }
+
+    @Override
+    public long getOrderCount() {
+        return orderCount.sum();
+    }
+
+    private void fold(long position, long userId, String userName, long orderId,
+                      long productId, long valueCents, int purchaseDate) {
+        Stripe stripe = stripes[stripe(userId)];
+        synchronized (stripe) {
+            UserAccumulator user = stripe.users.get(userId);
+            if (user == null) {
+                user = new UserAccumulator(userId, userName, position);
+                stripe.users.put(userId, user);
+                userCount.increment();
+            } else if (position < user.firstSeen) {
+                user.firstSeen = position;
+                user.name = userName;
+            }
+
+            OrderAccumulator order = user.orders.get(orderId);
+            if (order == null) {
+                order = new OrderAccumulator(orderId, position, DateUtil.fromPackedLegacyDate(purchaseDate));
+                user.orders.put(orderId, order);
+                orderCount.increment();
+            } else if (position < order.firstSeen) {
+                order.firstSeen = position;
+                order.date = DateUtil.fromPackedLegacyDate(purchaseDate);
+            }
+            order.add(position, productId, valueCents);
+        }
+    }
+
+    private int stripe(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & stripeMask;
+    }
+
+    private final class ChunkHandler implements OrderRecordHandler {
+        private final long base;
+        private int lines;
+
+        private ChunkHandler(long base) {
+            this.base = base;
+        }
+
+        @Override
+        public void onRecord(long userId, String userName, long orderId, long productId, long valueCents, int purchaseDate) {
+            fold(base | Integer.toUnsignedLong(lines), userId, userName, orderId, productId, valueCents, purchaseDate);
+            lineCount.increment();
+            if (++lines % PROGRESS_INTERVAL == 0) {
+                progress.add(PROGRESS_INTERVAL);
+            }
+        }
+
+        @Override
+        public void onEnd() {
+            progress.add(lines % PROGRESS_INTERVAL);
+        }
+    }
+
+    private static final class Stripe {
+        private final LongObjectHashMap<UserAccumulator> users = new LongObjectHashMap<>(64);
+    }
+
+    private static final class UserAccumulator {
+        private final long userId;
+        private final LongObjectHashMap<OrderAccumulator> orders = new LongObjectHashMap<>(2);
+        private String name;
+        private long firstSeen;
+
+        private UserAccumulator(long userId, String name, long firstSeen) {
+            this.userId = userId;
+            this.name = name;
+            this.firstSeen = firstSeen;
+        }
+    }
+
+    private static final class OrderAccumulator {
+        private final long orderId;
+        private long firstSeen;
+        private LocalDate date;
+        private long totalCents;
+        private Product[] products = new Product[2];
+        private long[] positions = new long[2];
+        private int size;
+        private boolean outOfOrder;
+
+        private OrderAccumulator(long orderId, long firstSeen, LocalDate date) {
+            this.orderId = orderId;
+            this.firstSeen = firstSeen;
+            this.date = date;
+        }
+
+        private void add(long position, long productId, long valueCents) {
+            if (size == products.length) {
+                products = Arrays.copyOf(products, size << 1);
+                positions = Arrays.copyOf(positions, size << 1);
+            }
+            outOfOrder |= size > 0 && position < positions[size - 1];
+            totalCents += valueCents;
+            positions[size] = position;
+            products[size++] = Product.builder()
+                    .productId(productId)
+                    .valueCents(valueCents)
+                    .build();
+        }
+
+        private List<Product> products() {
+            if (!outOfOrder) {
+                return new ArrayList<>(Arrays.asList(products).subList(0, size));
+            }
+            // Only orders split across chunks that finished out of order land here
+            Integer[] indexes = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                indexes[i] = i;
+            }
+            Arrays.sort(indexes, Comparator.comparingLong(i -> positions[i]));
+            List<Product> sorted = new ArrayList<>(size);
+            for (Integer index : indexes) {
+                sorted.add(products[index]);
+            }
+            return sorted;
+        }
+    }
+}
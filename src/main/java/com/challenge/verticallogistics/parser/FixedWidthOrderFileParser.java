@@ -8,8 +8,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 
 @Component
 public class FixedWidthOrderFileParser implements OrderFileParser {
@@ -29,24 +29,19 @@ public class FixedWidthOrderFileParser implements OrderFileParser {
     private static final int LINE_LENGTH = PURCHASE_DATE_START + PURCHASE_DATE_LENGTH;
 
     @Override
-    public List<OrderLine> parseOrderFile(InputStream fileInputStream) {
-        List<OrderLine> orderLines = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileInputStream))) {
+    public void parseOrderFile(InputStream fileInputStream, Consumer<OrderLine> consumer) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileInputStream, StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (line.length() < LINE_LENGTH) {
                     throw new OrderProcessingException("Invalid line length: " + line.length() + ". Expected: " + LINE_LENGTH);
                 }
 
-                OrderLine orderLine = parseOrderLine(line);
-                orderLines.add(orderLine);
+                consumer.accept(parseOrderLine(line));
             }
         } catch (IOException e) {
             throw new OrderProcessingException("Error reading file", e);
         }
-
-        return orderLines;
     }
 
     private OrderLine parseOrderLine(String line) {
@@ -0,0 +1,262 @@
+package com.challenge.verticallogistics.parser;
+
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Decodes the fixed-width layout straight from a memory-mapped file. Numeric
+ * columns are read into primitives in place; only the user name becomes a String.
+ * <p>
+ * The layout counts characters, not bytes: a name with multi-byte UTF-8 characters
+ * takes more than 45 bytes, so the columns after it are read relative to where the
+ * name actually ends.
+ */
+@Component
+public class MappedOrderFileParser implements OrderRecordFileParser {
+
+    private static final int USER_ID_START = 0;
+    private static final int USER_ID_LENGTH = 10;
+    private static final int USER_NAME_START = 10;
+    private static final int USER_NAME_LENGTH = 45;
+    private static final int MAX_USER_NAME_BYTES = USER_NAME_LENGTH * 4;
+    private static final int ORDER_ID_START = 55;
+    private static final int ORDER_ID_LENGTH = 10;
+    private static final int PRODUCT_ID_START = 65;
+    private static final int PRODUCT_ID_LENGTH = 10;
+    private static final int PRODUCT_VALUE_START = 75;
+    private static final int PRODUCT_VALUE_LENGTH = 12;
+    private static final int PURCHASE_DATE_START = 87;
+    private static final int PURCHASE_DATE_LENGTH = 8;
+    private static final int LINE_LENGTH = PURCHASE_DATE_START + PURCHASE_DATE_LENGTH;
+    private static final int TAIL_LENGTH = LINE_LENGTH - ORDER_ID_START;
+
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+    @Override
+    public void parseOrderFile(Path file, OrderRecordHandler handler) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            LineDecoder decoder = new LineDecoder(handler);
+
+            // A single mapping is limited to 2 GB, so large files are walked in windows
+            // that always restart at the beginning of the first incomplete line.
+            while (position < size) {
+                long windowSize = Math.min(MAX_WINDOW_SIZE, size - position);
+                boolean lastWindow = position + windowSize == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+                int consumed = decoder.decode(buffer, 0, (int) windowSize, lastWindow);
+                if (consumed == 0) {
+                    throw new OrderProcessingException("Line exceeds maximum window size at offset " + position);
+                }
+                position += consumed;
+            }
+            handler.onEnd();
+        } catch (IOException e) {
+            throw new OrderProcessingException("Error reading file", e);
+        }
+    }
+
+    static final class LineDecoder {
+        private final OrderRecordHandler handler;
+        private final byte[] nameBuffer = new byte[MAX_USER_NAME_BYTES];
+        private long lastUserId = -1;
+        private String lastUserName;
+
+        LineDecoder(OrderRecordHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Decodes every complete line in {@code [from, to)} and returns the number of
+         * bytes consumed. A trailing line without terminator is only decoded when
+         * {@code endOfInput} is set.
+         */
+        int decode(ByteBuffer buffer, int from, int to, boolean endOfInput) {
+            int position = from;
+
+            while (position < to) {
+                int lineEnd = indexOfLineFeed(buffer, position, to);
+                int next;
+                if (lineEnd < 0) {
+                    if (!endOfInput) {
+                        break;
+                    }
+                    lineEnd = to;
+                    next = to;
+                } else {
+                    next = lineEnd + 1;
+                }
+
+                if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                decodeLine(buffer, position, lineEnd - position);
+                position = next;
+            }
+
+            return position - from;
+        }
+
+        private void decodeLine(ByteBuffer buffer, int start, int length) {
+            if (length < LINE_LENGTH) {
+                throw new OrderProcessingException("Invalid line length: " + length + ". Expected: " + LINE_LENGTH);
+            }
+
+            int nameStart = start + USER_NAME_START;
+            int nameEnd = nameEnd(buffer, nameStart, start + length);
+            if (nameEnd < 0 || start + length - nameEnd < TAIL_LENGTH) {
+                throw new OrderProcessingException("Invalid line length: " + length + ". Expected: " + LINE_LENGTH
+                        + " characters");
+            }
+            // Offsets of the columns after the name, shifted by its extra UTF-8 bytes
+            int tail = nameEnd - ORDER_ID_START;
+
+            long userId = parseLong(buffer, start + USER_ID_START, USER_ID_LENGTH);
+            long orderId = parseLong(buffer, tail + ORDER_ID_START, ORDER_ID_LENGTH);
+            long productId = parseLong(buffer, tail + PRODUCT_ID_START, PRODUCT_ID_LENGTH);
+            long valueCents = parseCents(buffer, tail + PRODUCT_VALUE_START, PRODUCT_VALUE_LENGTH);
+            int purchaseDate = (int) parseLong(buffer, tail + PURCHASE_DATE_START, PURCHASE_DATE_LENGTH);
+
+            // Lines of the same user are usually adjacent, so the decoded name is reused
+            if (userId != lastUserId) {
+                lastUserId = userId;
+                lastUserName = parseName(buffer, nameStart, nameEnd);
+            }
+
+            handler.onRecord(userId, lastUserName, orderId, productId, valueCents, purchaseDate);
+        }
+
+        private String parseName(ByteBuffer buffer, int from, int to) {
+            while (from < to && buffer.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) == ' ') {
+                to--;
+            }
+            buffer.get(from, nameBuffer, 0, to - from);
+            return new String(nameBuffer, 0, to - from, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the offset right after the 45 characters of the name field, or -1 if
+         * the line ends first. Characters outside the BMP count twice, as they do in
+         * the {@code String} the stream parser slices.
+         */
+        private static int nameEnd(ByteBuffer buffer, int from, int limit) {
+            int ascii = Math.min(from + USER_NAME_LENGTH, limit);
+            int position = from;
+            while (position < ascii && buffer.get(position) >= 0) {
+                position++;
+            }
+            int chars = position - from;
+            while (chars < USER_NAME_LENGTH && position < limit) {
+                int lead = buffer.get(position) & 0xFF;
+                int bytes = lead < 0xC0 ? 1 : lead < 0xE0 ? 2 : lead < 0xF0 ? 3 : 4;
+                chars += bytes == 4 ? 2 : 1;
+                position += bytes;
+            }
+            return chars >= USER_NAME_LENGTH && position <= limit ? position : -1;
+        }
+
+        private static int indexOfLineFeed(ByteBuffer buffer, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static long parseLong(ByteBuffer buffer, int start, int length) {
+            int end = start + length;
+            int position = skipLeadingSpaces(buffer, start, end);
+            long value = 0;
+            int digits = 0;
+
+            while (position < end) {
+                byte b = buffer.get(position);
+                if (b == ' ') {
+                    break;
+                }
+                if (b < '0' || b > '9') {
+                    throw invalidField(buffer, start, length);
+                }
+                value = value * 10 + (b - '0');
+                digits++;
+                position++;
+            }
+
+            if (digits == 0 || !onlySpaces(buffer, position, end)) {
+                throw invalidField(buffer, start, length);
+            }
+            return value;
+        }
+
+        private static long parseCents(ByteBuffer buffer, int start, int length) {
+            int end = start + length;
+            int position = skipLeadingSpaces(buffer, start, end);
+            long value = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+
+            while (position < end) {
+                byte b = buffer.get(position);
+                if (b == ' ') {
+                    break;
+                }
+                if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (b >= '0' && b <= '9' && fractionDigits < 2) {
+                    value = value * 10 + (b - '0');
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else {
+                    throw invalidField(buffer, start, length);
+                }
+                position++;
+            }
+
+            if (digits == 0 || !onlySpaces(buffer, position, end)) {
+                throw invalidField(buffer, start, length);
+            }
+            for (int i = Math.max(fractionDigits, 0); i < 2; i++) {
+                value *= 10;
+            }
+            return value;
+        }
+
+        private static int skipLeadingSpaces(ByteBuffer buffer, int position, int end) {
+            while (position < end && buffer.get(position) == ' ') {
+                position++;
+            }
+            return position;
+        }
+
+        private static boolean onlySpaces(ByteBuffer buffer, int position, int end) {
+            for (int i = position; i < end; i++) {
+                if (buffer.get(i) != ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static OrderProcessingException invalidField(ByteBuffer buffer, int start, int length) {
+            byte[] field = new byte[length];
+            buffer.get(start, field);
+            return new OrderProcessingException("Invalid field value: '" + new String(field, StandardCharsets.UTF_8) + "'");
+        }
+    }
+}
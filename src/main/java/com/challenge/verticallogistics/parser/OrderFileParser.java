@@ -3,8 +3,17 @@ package com.challenge.verticallogistics.parser;
 import com.challenge.verticallogistics.model.OrderLine;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderFileParser {
-    List<OrderLine> parseOrderFile(InputStream fileInputStream);
-}
\ No newline at end of file
+
+    void parseOrderFile(InputStream fileInputStream, Consumer<OrderLine> consumer);
+
+    default List<OrderLine> parseOrderFile(InputStream fileInputStream) {
+        List<OrderLine> orderLines = new ArrayList<>();
+        parseOrderFile(fileInputStream, orderLines::add);
+        return orderLines;
+    }
+}
@@ -0,0 +1,7 @@
+package com.challenge.verticallogistics.parser;
+
+import java.nio.file.Path;
+
+public interface OrderRecordFileParser {
+    void parseOrderFile(Path file, OrderRecordHandler handler);
+}
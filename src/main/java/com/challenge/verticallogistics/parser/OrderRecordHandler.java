@@ -0,0 +1,12 @@
+package com.challenge.verticallogistics.parser;
+
+@FunctionalInterface
+public interface OrderRecordHandler {
+    void onRecord(long userId, String userName, long orderId, long productId, long valueCents, int purchaseDate);
+
+    /**
+     * Called once after the last record of the input, or of the chunk the handler was fed.
+     */
+    default void onEnd() {
+    }
+}
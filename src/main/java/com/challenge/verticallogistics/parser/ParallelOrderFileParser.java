@@ -0,0 +1,99 @@
+package com.challenge.verticallogistics.parser;
+
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+
+/**
+ * Splits a mapped file into chunks at line boundaries and decodes them on the
+ * ingestion pool. Every chunk feeds its own handler, usually a view over one
+ * thread-safe aggregator.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParallelOrderFileParser {
+
+    private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - 1024;
+    private static final int BOUNDARY_SCAN_SIZE = 256;
+
+    private final IngestionProperties ingestionProperties;
+    private final ForkJoinPool ingestionPool;
+
+    /**
+     * Decodes every chunk concurrently into the handler returned for its index.
+     */
+    public void parseOrderFile(Path file, IntFunction<? extends OrderRecordHandler> chunkHandler) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(boundaries.length - 1);
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                int chunk = i;
+                tasks.add(ForkJoinTask.adapt(() ->
+                        parseChunk(channel, boundaries[chunk], boundaries[chunk + 1], chunkHandler.apply(chunk))));
+            }
+            ingestionPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } catch (IOException e) {
+            throw new OrderProcessingException("Error reading file", e);
+        }
+    }
+
+    private long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.min(Math.max(1, ingestionProperties.getChunkSize().toBytes()), MAX_CHUNK_SIZE);
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        long position = 0;
+        while (position < size) {
+            position = position + chunkSize >= size ? size : nextLineStart(channel, position + chunkSize, size);
+            boundaries.add(position);
+        }
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = from - 1;
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+
+        return size;
+    }
+
+    private static void parseChunk(FileChannel channel, long start, long end, OrderRecordHandler handler) {
+        try {
+            int length = (int) (end - start);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            new MappedOrderFileParser.LineDecoder(handler).decode(buffer, 0, length, true);
+            handler.onEnd();
+        } catch (IOException e) {
+            throw new OrderProcessingException("Error reading file", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Repository
+@ConditionalOnProperty(name = "orders.repository.type", havingValue = "columnar")
+public class ColumnarOrderRepository implements OrderRepository {
+
+    private final AtomicReference<ColumnarOrderSnapshot> snapshot = new AtomicReference<>(ColumnarOrderSnapshot.EMPTY);
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public synchronized void saveAll(List<User> users) {
+        publish(snapshot.get().withUsers(users));
+    }
+
+    @Override
+    public synchronized void mergeAll(List<User> users) {
+        publish(snapshot.get().withMerged(users));
+    }
+
+    @Override
+    public synchronized void replaceAll(List<User> users) {
+        publish(ColumnarOrderSnapshot.of(users));
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return snapshot.get().users();
+    }
+
+    @Override
+    public List<User> findByOrderId(Long orderId) {
+        return snapshot.get().findByOrderId(orderId);
+    }
+
+    @Override
+    public List<User> findByOrderIds(Collection<Long> orderIds) {
+        return snapshot.get().findByOrderIds(orderIds);
+    }
+
+    @Override
+    public List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        return snapshot.get().findByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return snapshot.get().findPage(after, limit);
+    }
+
+    @Override
+    public OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        return snapshot.get().findPageByDateRange(startDate, endDate, after, limit);
+    }
+
+    @Override
+    public OrderStatistics statistics() {
+        return snapshot.get().statistics();
+    }
+
+    @Override
+    public synchronized void clear() {
+        publish(ColumnarOrderSnapshot.EMPTY);
+    }
+
+    private void publish(ColumnarOrderSnapshot next) {
+        version.incrementAndGet();
+        snapshot.set(next);
+        version.incrementAndGet();
+    }
+}
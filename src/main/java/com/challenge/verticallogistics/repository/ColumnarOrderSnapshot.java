@@ -0,0 +1,808 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.LongObjectHashMap;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Struct-of-arrays layout of the stored users. Users point to a range of orders and
+ * orders to a range of products through offset columns; {@link User} and {@link Order}
+ * objects are only materialised when a query returns them.
+ * <p>
+ * Columns are primitive buffers, either wrapping heap arrays or mapped straight from
+ * a snapshot file written by {@link #writeTo(FileChannel)}.
+ */
+final class ColumnarOrderSnapshot {
+
+    static final ColumnarOrderSnapshot EMPTY = of(List.of());
+
+    private static final int MAGIC = 0x564C4F53;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int INSERTION_SORT_RUN = 32;
+
+    private final String[] names;
+
+    private final LongBuffer userIds;
+    private final IntBuffer userNames;
+    private final IntBuffer userOrderOffsets;
+
+    private final LongBuffer orderIds;
+    private final IntBuffer orderEpochDays;
+    private final LongBuffer orderTotalCents;
+    private final IntBuffer orderUsers;
+    private final IntBuffer orderProductOffsets;
+
+    private final LongBuffer productIds;
+    private final LongBuffer productValueCents;
+
+    private final LongBuffer sortedOrderIds;
+    private final IntBuffer ordersBySortedId;
+    private final IntBuffer ordersByKey;
+    private final IntBuffer sortedEpochDays;
+    private final IntBuffer ordersByDate;
+
+    private volatile OrderStatistics statistics;
+
+    private ColumnarOrderSnapshot(String[] names, Buffers buffers) {
+        this.names = names;
+        this.userIds = buffers.nextLongs();
+        this.userNames = buffers.nextInts();
+        this.userOrderOffsets = buffers.nextInts();
+        this.orderIds = buffers.nextLongs();
+        this.orderEpochDays = buffers.nextInts();
+        this.orderTotalCents = buffers.nextLongs();
+        this.orderUsers = buffers.nextInts();
+        this.orderProductOffsets = buffers.nextInts();
+        this.productIds = buffers.nextLongs();
+        this.productValueCents = buffers.nextLongs();
+        this.sortedOrderIds = buffers.nextLongs();
+        this.ordersBySortedId = buffers.nextInts();
+        this.ordersByKey = buffers.nextInts();
+        this.sortedEpochDays = buffers.nextInts();
+        this.ordersByDate = buffers.nextInts();
+    }
+
+    static ColumnarOrderSnapshot of(Collection<User> users) {
+        Map<Long, User> usersById = new LinkedHashMap<>();
+        users.forEach(user -> usersById.put(user.getUserId(), user));
+        Collection<User> distinctUsers = usersById.values();
+
+        ColumnBuilder columns = new ColumnBuilder(distinctUsers.size(), orderCount(distinctUsers), productCount(distinctUsers));
+        Map<String, Integer> nameIds = new HashMap<>();
+        List<String> distinctNames = new ArrayList<>();
+        for (User user : distinctUsers) {
+            columns.add(user, nameIds.computeIfAbsent(user.getName(), name -> {
+                distinctNames.add(name);
+                return distinctNames.size() - 1;
+            }));
+        }
+
+        return columns.build(distinctNames.toArray(new String[0]),
+                sortedPermutation(columns.orderIds.length, columns.byOrderId()),
+                sortedPermutation(columns.orderIds.length, columns.byKey()),
+                sortedPermutation(columns.orderIds.length, columns.byDate()));
+    }
+
+    /**
+     * Maps a snapshot file written by {@link #writeTo(FileChannel)}. Every column is
+     * mapped as its own region, so a column, not the whole file, is bound by the 2 GB
+     * mapping limit.
+     */
+    static ColumnarOrderSnapshot map(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not an order snapshot file");
+        }
+        int userCount = header.getInt();
+        int orderCount = header.getInt();
+        int productCount = header.getInt();
+        int nameCount = header.getInt();
+
+        long position = HEADER_SIZE;
+        List<Buffer> columns = new ArrayList<>();
+        for (ColumnType column : ColumnType.layout(userCount, orderCount, productCount)) {
+            long size = (long) column.length() * column.width();
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(BYTE_ORDER);
+            columns.add(column.width() == Long.BYTES ? region.asLongBuffer() : region.asIntBuffer());
+            position += size + padding(size);
+        }
+
+        String[] names = new String[nameCount];
+        ByteBuffer nameRegion = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position).order(BYTE_ORDER);
+        for (int i = 0; i < nameCount; i++) {
+            byte[] bytes = new byte[nameRegion.getInt()];
+            nameRegion.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return new ColumnarOrderSnapshot(names, new Buffers(columns));
+    }
+
+    void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(userIds.limit())
+                .putInt(orderIds.limit())
+                .putInt(productIds.limit())
+                .putInt(names.length);
+        header.clear();
+        writeFully(channel, header);
+
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(BYTE_ORDER);
+        for (Buffer column : columns()) {
+            for (int i = 0; i < column.limit(); i++) {
+                flushIfFull(channel, chunk);
+                if (column instanceof LongBuffer longs) {
+                    chunk.putLong(longs.get(i));
+                } else {
+                    chunk.putInt(((IntBuffer) column).get(i));
+                }
+            }
+            // Keep every column 8-byte aligned in the file
+            if (column instanceof IntBuffer && column.limit() % 2 != 0) {
+                flushIfFull(channel, chunk);
+                chunk.putInt(0);
+            }
+        }
+        chunk.flip();
+        writeFully(channel, chunk);
+
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + bytes.length).order(BYTE_ORDER);
+            entry.putInt(bytes.length).put(bytes).flip();
+            writeFully(channel, entry);
+        }
+    }
+
+    private List<Buffer> columns() {
+        return List.of(userIds, userNames, userOrderOffsets, orderIds, orderEpochDays,
+                orderTotalCents, orderUsers, orderProductOffsets, productIds, productValueCents,
+                sortedOrderIds, ordersBySortedId, ordersByKey, sortedEpochDays, ordersByDate);
+    }
+
+    /**
+     * Returns a snapshot in which the given users replace the stored users with the
+     * same id, in place, and users not stored yet follow the stored ones. Untouched
+     * users are copied column range by column range, without being materialised, and
+     * the sort indexes are merged with the sorted orders of the given users.
+     */
+    ColumnarOrderSnapshot withUsers(Collection<User> replacements) {
+        Map<Long, User> pending = new LinkedHashMap<>();
+        replacements.forEach(user -> pending.put(user.getUserId(), user));
+        LongObjectHashMap<User> pendingById = new LongObjectHashMap<>(pending.size());
+        pending.values().forEach(user -> pendingById.put(user.getUserId(), user));
+
+        int storedUsers = userIds.limit();
+        int[] replacedIndexes = new int[pending.size()];
+        int replacedCount = 0;
+        int removedOrders = 0;
+        int removedProducts = 0;
+        for (int u = 0; u < storedUsers && replacedCount < pending.size(); u++) {
+            if (pendingById.containsKey(userIds.get(u))) {
+                replacedIndexes[replacedCount++] = u;
+                removedOrders += userOrderOffsets.get(u + 1) - userOrderOffsets.get(u);
+                removedProducts += orderProductOffsets.get(userOrderOffsets.get(u + 1))
+                        - orderProductOffsets.get(userOrderOffsets.get(u));
+            }
+        }
+        Collection<User> written = pending.values();
+        int addedOrders = orderCount(written);
+
+        List<String> nextNames = new ArrayList<>(Arrays.asList(names));
+        Map<String, Integer> addedNames = new HashMap<>();
+        ColumnBuilder columns = new ColumnBuilder(storedUsers + pending.size() - replacedCount,
+                orderIds.limit() - removedOrders + addedOrders,
+                productIds.limit() - removedProducts + productCount(written));
+        int[] orderMapping = new int[orderIds.limit()];
+        Arrays.fill(orderMapping, -1);
+        int[] added = new int[addedOrders];
+        int addedCount = 0;
+
+        int copyFrom = 0;
+        for (int i = 0; i < replacedCount; i++) {
+            int u = replacedIndexes[i];
+            columns.copy(this, copyFrom, u, orderMapping);
+            User user = pendingById.remove(userIds.get(u));
+            int name = user.getName().equals(names[userNames.get(u)])
+                    ? userNames.get(u)
+                    : nameIndex(user.getName(), nextNames, addedNames);
+            addedCount = columns.add(user, name, added, addedCount);
+            copyFrom = u + 1;
+        }
+        columns.copy(this, copyFrom, storedUsers, orderMapping);
+        for (User user : written) {
+            if (pendingById.remove(user.getUserId()) != null) {
+                addedCount = columns.add(user, nameIndex(user.getName(), nextNames, addedNames), added, addedCount);
+            }
+        }
+
+        int orderCount = columns.orderIds.length;
+        return columns.build(nextNames.toArray(new String[0]),
+                mergedPermutation(ordersBySortedId, orderMapping, added, columns.byOrderId(), orderCount),
+                mergedPermutation(ordersByKey, orderMapping, added, columns.byKey(), orderCount),
+                mergedPermutation(ordersByDate, orderMapping, added, columns.byDate(), orderCount));
+    }
+
+    /**
+     * Merges the given users into the stored ones. Only the stored versions of touched
+     * users are materialised; the rest is copied by {@link #withUsers(Collection)}.
+     */
+    ColumnarOrderSnapshot withMerged(List<User> additions) {
+        LongObjectHashMap<User> touchedUsers = new LongObjectHashMap<>(additions.size());
+        additions.forEach(user -> touchedUsers.put(user.getUserId(), user));
+        LongObjectHashMap<User> storedUsers = new LongObjectHashMap<>(touchedUsers.size());
+        for (int u = 0; u < userIds.limit(); u++) {
+            if (touchedUsers.containsKey(userIds.get(u))) {
+                storedUsers.put(userIds.get(u), materialiseUser(u));
+            }
+        }
+
+        return withUsers(UserMerger.mergeAll(storedUsers::get, additions));
+    }
+
+    /**
+     * Rolls the columns up on first use, so mapping a snapshot at startup or after a
+     * write does not walk every order.
+     */
+    OrderStatistics statistics() {
+        OrderStatistics rolledUp = statistics;
+        if (rolledUp != null) {
+            return rolledUp;
+        }
+        synchronized (this) {
+            if (statistics == null) {
+                statistics = rollUp();
+            }
+            return statistics;
+        }
+    }
+
+    boolean hasStatistics() {
+        return statistics != null;
+    }
+
+    List<User> users() {
+        return new AbstractList<>() {
+            @Override
+            public User get(int index) {
+                return materialiseUser(index);
+            }
+
+            @Override
+            public int size() {
+                return userIds.limit();
+            }
+        };
+    }
+
+    List<User> findByOrderId(long orderId) {
+        int from = lowerBound(sortedOrderIds, orderId);
+        int to = from;
+        while (to < sortedOrderIds.limit() && sortedOrderIds.get(to) == orderId) {
+            to++;
+        }
+        return groupByUser(ordersBySortedId, from, to);
+    }
+
+    /**
+     * Looks the ids up in ascending order, each search starting where the previous
+     * one ended, so a large batch walks the sorted id column once.
+     */
+    List<User> findByOrderIds(Collection<Long> orderIds) {
+        long[] wanted = orderIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        int[] matches = new int[Math.min(wanted.length, sortedOrderIds.limit())];
+        int size = 0;
+        int position = 0;
+        for (long orderId : wanted) {
+            position = lowerBound(sortedOrderIds, position, orderId);
+            for (; position < sortedOrderIds.limit() && sortedOrderIds.get(position) == orderId; position++) {
+                if (size == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(16, size << 1));
+                }
+                matches[size++] = ordersBySortedId.get(position);
+            }
+        }
+        return groupByUser(IntBuffer.wrap(matches), 0, size);
+    }
+
+    List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        long fromDay = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long toDay = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        if (fromDay > toDay) {
+            return new ArrayList<>();
+        }
+
+        int from = lowerBound(sortedEpochDays, fromDay);
+        int to = toDay == Long.MAX_VALUE ? sortedEpochDays.limit() : lowerBound(sortedEpochDays, toDay + 1);
+        return groupByUser(ordersByDate, from, to);
+    }
+
+    /**
+     * Returns up to {@code limit} orders after the cursor, ordered by user and order id.
+     */
+    OrderPage findPage(OrderCursor after, int limit) {
+        int size = ordersByKey.limit();
+        int from = after == null ? 0 : firstAfter(ordersByKey, 0, size,
+                o -> compareKey(o, after.getUserId(), after.getOrderId()));
+        return page(ordersByKey, from, size, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} orders of the date range after the cursor, ordered by date.
+     */
+    OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        long fromDay = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long toDay = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        if (fromDay > toDay) {
+            return new OrderPage(new ArrayList<>(), null);
+        }
+
+        int from = lowerBound(sortedEpochDays, fromDay);
+        int to = toDay == Long.MAX_VALUE ? sortedEpochDays.limit() : lowerBound(sortedEpochDays, toDay + 1);
+        if (after != null) {
+            from = firstAfter(ordersByDate, from, to, o -> {
+                int byDay = Long.compare(orderEpochDays.get(o), after.getEpochDay());
+                return byDay != 0 ? byDay : compareKey(o, after.getUserId(), after.getOrderId());
+            });
+        }
+        return page(ordersByDate, from, to, limit);
+    }
+
+    private OrderPage page(IntBuffer orderIndexes, int from, int to, int limit) {
+        int end = (int) Math.min(to, (long) from + limit);
+        OrderCursor next = null;
+        if (end < to && end > from) {
+            int last = orderIndexes.get(end - 1);
+            next = new OrderCursor(orderEpochDays.get(last), userIds.get(orderUsers.get(last)), orderIds.get(last));
+        }
+        return new OrderPage(groupByUser(orderIndexes, from, end), next);
+    }
+
+    /**
+     * Returns the first position of {@code orderIndexes[from, to)} whose order compares
+     * above the cursor, {@code againstCursor} giving the sign of that comparison.
+     */
+    private static int firstAfter(IntBuffer orderIndexes, int from, int to, IntUnaryOperator againstCursor) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (againstCursor.applyAsInt(orderIndexes.get(middle)) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compareKey(int o, long userId, long orderId) {
+        int byUser = Long.compare(userIds.get(orderUsers.get(o)), userId);
+        return byUser != 0 ? byUser : Long.compare(orderIds.get(o), orderId);
+    }
+
+    /**
+     * Materialises the orders at {@code orderIndexes[from, to)}, grouped by user in
+     * order of first appearance.
+     */
+    private List<User> groupByUser(IntBuffer orderIndexes, int from, int to) {
+        LongObjectHashMap<User> usersByIndex = new LongObjectHashMap<>();
+        List<User> users = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int o = orderIndexes.get(i);
+            usersByIndex.computeIfAbsent(orderUsers.get(o), u -> {
+                        User user = User.builder()
+                                .userId(userIds.get((int) u))
+                                .name(names[userNames.get((int) u)])
+                                .orders(new ArrayList<>())
+                                .build();
+                        users.add(user);
+                        return user;
+                    })
+                    .getOrders()
+                    .add(materialiseOrder(o));
+        }
+        return users;
+    }
+
+    private OrderStatistics rollUp() {
+        OrderStatistics.Builder builder = OrderStatistics.builder();
+        for (int o = 0; o < orderIds.limit(); o++) {
+            int u = orderUsers.get(o);
+            long epochDay = orderEpochDays.get(o);
+            builder.addOrder(userIds.get(u), names[userNames.get(u)], epochDay, orderTotalCents.get(o));
+            for (int p = orderProductOffsets.get(o); p < orderProductOffsets.get(o + 1); p++) {
+                builder.addProduct(epochDay, productIds.get(p), productValueCents.get(p));
+            }
+        }
+        return builder.build();
+    }
+
+    private User materialiseUser(int u) {
+        int from = userOrderOffsets.get(u);
+        int to = userOrderOffsets.get(u + 1);
+        List<Order> orders = new ArrayList<>(to - from);
+        for (int o = from; o < to; o++) {
+            orders.add(materialiseOrder(o));
+        }
+        return User.builder()
+                .userId(userIds.get(u))
+                .name(names[userNames.get(u)])
+                .orders(orders)
+                .build();
+    }
+
+    private Order materialiseOrder(int o) {
+        int from = orderProductOffsets.get(o);
+        int to = orderProductOffsets.get(o + 1);
+        List<Product> products = new ArrayList<>(to - from);
+        for (int p = from; p < to; p++) {
+            products.add(Product.builder()
+                    .productId(productIds.get(p))
+                    .valueCents(productValueCents.get(p))
+                    .build());
+        }
+        return Order.builder()
+                .orderId(orderIds.get(o))
+                .date(DateUtil.ofEpochDay(orderEpochDays.get(o)))
+                .totalCents(orderTotalCents.get(o))
+                .products(products)
+                .build();
+    }
+
+    /**
+     * Stable index sort: runs are sorted by insertion, then merged bottom-up between
+     * two index arrays, without boxing.
+     */
+    private static int[] sortedPermutation(int size, IndexOrder order) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        return sorted(permutation, order);
+    }
+
+    private static int[] sorted(int[] indexes, IndexOrder order) {
+        int size = indexes.length;
+        for (int from = 0; from < size; from += INSERTION_SORT_RUN) {
+            int to = Math.min(size, from + INSERTION_SORT_RUN);
+            for (int i = from + 1; i < to; i++) {
+                int index = indexes[i];
+                int j = i - 1;
+                while (j >= from && order.compare(indexes[j], index) > 0) {
+                    indexes[j + 1] = indexes[j];
+                    j--;
+                }
+                indexes[j + 1] = index;
+            }
+        }
+
+        int[] source = indexes;
+        int[] target = new int[size];
+        for (int width = INSERTION_SORT_RUN; width < size; width <<= 1) {
+            for (int from = 0; from < size; from += width << 1) {
+                int middle = Math.min(size, from + width);
+                int to = Math.min(size, middle + width);
+                int left = from;
+                int right = middle;
+                for (int i = from; i < to; i++) {
+                    target[i] = right >= to || (left < middle && order.compare(source[left], source[right]) <= 0)
+                            ? source[left++]
+                            : source[right++];
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    /**
+     * Drops the replaced orders from a stored sort index, moves the copied ones to
+     * their new index and merges in the {@code added} orders, sorted on their own.
+     * Copied orders keep their relative order, so the stored index is never re-sorted.
+     */
+    private static int[] mergedPermutation(IntBuffer stored, int[] orderMapping, int[] added,
+                                           IndexOrder order, int size) {
+        int[] addedSorted = sorted(added.clone(), order);
+
+        int[] merged = new int[size];
+        int next = 0;
+        int m = 0;
+        for (int i = 0; i < stored.limit(); i++) {
+            int o = orderMapping[stored.get(i)];
+            if (o < 0) {
+                continue;
+            }
+            while (next < addedSorted.length && precedes(addedSorted[next], o, order)) {
+                merged[m++] = addedSorted[next++];
+            }
+            merged[m++] = o;
+        }
+        while (next < addedSorted.length) {
+            merged[m++] = addedSorted[next++];
+        }
+        return merged;
+    }
+
+    private static boolean precedes(int left, int right, IndexOrder order) {
+        int comparison = order.compare(left, right);
+        return comparison < 0 || comparison == 0 && left < right;
+    }
+
+    private static int nameIndex(String name, List<String> names, Map<String, Integer> addedNames) {
+        return addedNames.computeIfAbsent(name, added -> {
+            names.add(added);
+            return names.size() - 1;
+        });
+    }
+
+    private static int orderCount(Collection<User> users) {
+        return users.stream().mapToInt(user -> user.getOrders().size()).sum();
+    }
+
+    private static int productCount(Collection<User> users) {
+        return users.stream()
+                .flatMap(user -> user.getOrders().stream())
+                .mapToInt(order -> order.getProducts().size())
+                .sum();
+    }
+
+    private static int lowerBound(LongBuffer sorted, long key) {
+        return lowerBound(sorted, 0, key);
+    }
+
+    private static int lowerBound(LongBuffer sorted, int from, long key) {
+        int low = from;
+        int high = sorted.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(IntBuffer sorted, long key) {
+        int low = 0;
+        int high = sorted.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long padding(long size) {
+        return (Long.BYTES - size % Long.BYTES) % Long.BYTES;
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer chunk) throws IOException {
+        if (chunk.remaining() < Long.BYTES) {
+            chunk.flip();
+            writeFully(channel, chunk);
+            chunk.clear();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Fills fresh heap columns user by user, from {@link User} objects or by copying
+     * ranges of stored users straight from another snapshot's buffers.
+     */
+    private static final class ColumnBuilder {
+        private final long[] userIds;
+        private final int[] userNames;
+        private final int[] userOrderOffsets;
+        private final long[] orderIds;
+        private final int[] orderEpochDays;
+        private final long[] orderTotalCents;
+        private final int[] orderUsers;
+        private final int[] orderProductOffsets;
+        private final long[] productIds;
+        private final long[] productValueCents;
+        private int users;
+        private int orders;
+        private int products;
+
+        private ColumnBuilder(int userCount, int orderCount, int productCount) {
+            userIds = new long[userCount];
+            userNames = new int[userCount];
+            userOrderOffsets = new int[userCount + 1];
+            orderIds = new long[orderCount];
+            orderEpochDays = new int[orderCount];
+            orderTotalCents = new long[orderCount];
+            orderUsers = new int[orderCount];
+            orderProductOffsets = new int[orderCount + 1];
+            productIds = new long[productCount];
+            productValueCents = new long[productCount];
+        }
+
+        void add(User user, int name) {
+            userIds[users] = user.getUserId();
+            userNames[users] = name;
+            userOrderOffsets[users] = orders;
+
+            for (Order order : user.getOrders()) {
+                orderIds[orders] = order.getOrderId();
+                orderEpochDays[orders] = (int) order.getDate().toEpochDay();
+                orderTotalCents[orders] = order.getTotalCents();
+                orderUsers[orders] = users;
+                orderProductOffsets[orders] = products;
+
+                for (Product product : order.getProducts()) {
+                    productIds[products] = product.getProductId();
+                    productValueCents[products] = product.getValueCents();
+                    products++;
+                }
+                orders++;
+            }
+            users++;
+        }
+
+        /**
+         * Adds the user and records the indexes of its orders in {@code written},
+         * returning the new number of recorded orders.
+         */
+        int add(User user, int name, int[] written, int count) {
+            int first = orders;
+            add(user, name);
+            for (int o = first; o < orders; o++) {
+                written[count++] = o;
+            }
+            return count;
+        }
+
+        /**
+         * Copies the stored users {@code [fromUser, toUser)} of {@code source}, which
+         * must keep their user index, and records in {@code orderMapping} where each
+         * of their orders lands.
+         */
+        void copy(ColumnarOrderSnapshot source, int fromUser, int toUser, int[] orderMapping) {
+            int fromOrder = source.userOrderOffsets.get(fromUser);
+            int toOrder = source.userOrderOffsets.get(toUser);
+            int fromProduct = source.orderProductOffsets.get(fromOrder);
+            int toProduct = source.orderProductOffsets.get(toOrder);
+            int orderShift = orders - fromOrder;
+            int productShift = products - fromProduct;
+
+            source.userIds.get(fromUser, userIds, users, toUser - fromUser);
+            source.userNames.get(fromUser, userNames, users, toUser - fromUser);
+            for (int u = fromUser; u < toUser; u++) {
+                userOrderOffsets[users++] = source.userOrderOffsets.get(u) + orderShift;
+            }
+
+            source.orderIds.get(fromOrder, orderIds, orders, toOrder - fromOrder);
+            source.orderEpochDays.get(fromOrder, orderEpochDays, orders, toOrder - fromOrder);
+            source.orderTotalCents.get(fromOrder, orderTotalCents, orders, toOrder - fromOrder);
+            source.orderUsers.get(fromOrder, orderUsers, orders, toOrder - fromOrder);
+            for (int o = fromOrder; o < toOrder; o++) {
+                orderMapping[o] = orders;
+                orderProductOffsets[orders++] = source.orderProductOffsets.get(o) + productShift;
+            }
+
+            source.productIds.get(fromProduct, productIds, products, toProduct - fromProduct);
+            source.productValueCents.get(fromProduct, productValueCents, products, toProduct - fromProduct);
+            products += toProduct - fromProduct;
+        }
+
+        IndexOrder byOrderId() {
+            return (left, right) -> Long.compare(orderIds[left], orderIds[right]);
+        }
+
+        IndexOrder byKey() {
+            return (left, right) -> {
+                int byUser = Long.compare(userIds[orderUsers[left]], userIds[orderUsers[right]]);
+                return byUser != 0 ? byUser : Long.compare(orderIds[left], orderIds[right]);
+            };
+        }
+
+        IndexOrder byDate() {
+            IndexOrder byKey = byKey();
+            return (left, right) -> {
+                int byDay = Integer.compare(orderEpochDays[left], orderEpochDays[right]);
+                return byDay != 0 ? byDay : byKey.compare(left, right);
+            };
+        }
+
+        ColumnarOrderSnapshot build(String[] names, int[] ordersBySortedId, int[] ordersByKey, int[] ordersByDate) {
+            userOrderOffsets[users] = orders;
+            orderProductOffsets[orders] = products;
+
+            long[] sortedOrderIds = new long[orders];
+            int[] sortedEpochDays = new int[orders];
+            for (int i = 0; i < orders; i++) {
+                sortedOrderIds[i] = orderIds[ordersBySortedId[i]];
+                sortedEpochDays[i] = orderEpochDays[ordersByDate[i]];
+            }
+
+            return new ColumnarOrderSnapshot(names, new Buffers(List.of(
+                    LongBuffer.wrap(userIds), IntBuffer.wrap(userNames), IntBuffer.wrap(userOrderOffsets),
+                    LongBuffer.wrap(orderIds), IntBuffer.wrap(orderEpochDays), LongBuffer.wrap(orderTotalCents),
+                    IntBuffer.wrap(orderUsers), IntBuffer.wrap(orderProductOffsets),
+                    LongBuffer.wrap(productIds), LongBuffer.wrap(productValueCents),
+                    LongBuffer.wrap(sortedOrderIds), IntBuffer.wrap(ordersBySortedId), IntBuffer.wrap(ordersByKey),
+                    IntBuffer.wrap(sortedEpochDays), IntBuffer.wrap(ordersByDate))));
+        }
+    }
+
+    /**
+     * Orders two order indexes of the columns being built.
+     */
+    @FunctionalInterface
+    private interface IndexOrder {
+        int compare(int left, int right);
+    }
+
+    private record ColumnType(int length, int width) {
+
+        static List<ColumnType> layout(int users, int orders, int products) {
+            return List.of(
+                    new ColumnType(users, Long.BYTES), new ColumnType(users, Integer.BYTES), new ColumnType(users + 1, Integer.BYTES),
+                    new ColumnType(orders, Long.BYTES), new ColumnType(orders, Integer.BYTES), new ColumnType(orders, Long.BYTES),
+                    new ColumnType(orders, Integer.BYTES), new ColumnType(orders + 1, Integer.BYTES),
+                    new ColumnType(products, Long.BYTES), new ColumnType(products, Long.BYTES),
+                    new ColumnType(orders, Long.BYTES), new ColumnType(orders, Integer.BYTES), new ColumnType(orders, Integer.BYTES),
+                    new ColumnType(orders, Integer.BYTES), new ColumnType(orders, Integer.BYTES));
+        }
+    }
+
+    private static final class Buffers {
+        private final List<? extends Buffer> columns;
+        private int next;
+
+        private Buffers(List<? extends Buffer> columns) {
+            this.columns = columns;
+        }
+
+        LongBuffer nextLongs() {
+            return (LongBuffer) columns.get(next++);
+        }
+
+        IntBuffer nextInts() {
+            return (IntBuffer) columns.get(next++);
+        }
+    }
+}
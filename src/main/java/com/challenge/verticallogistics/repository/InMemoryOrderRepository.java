@@ -1,89 +1,93 @@
 package com.challenge.verticallogistics.repository;
 
-import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
 import com.challenge.verticallogistics.model.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 @Repository
+@ConditionalOnProperty(name = "orders.repository.type", havingValue = "memory", matchIfMissing = true)
 public class InMemoryOrderRepository implements OrderRepository {
 
-    private final Map<Long, User> userMap = new ConcurrentHashMap<>();
+    private final AtomicReference<OrderSnapshot> snapshot = new AtomicReference<>(OrderSnapshot.EMPTY);
+    private final AtomicLong version = new AtomicLong();
 
     @Override
-    public void saveAll(List<User> users) {
-        users.forEach(user -> userMap.put(user.getUserId(), user));
+    public synchronized void saveAll(List<User> users) {
+        publish(snapshot.get().withUsers(users));
+    }
+
+    @Override
+    public synchronized void mergeAll(List<User> users) {
+        publish(snapshot.get().withMerged(users));
+    }
+
+    @Override
+    public synchronized void replaceAll(List<User> users) {
+        publish(OrderSnapshot.of(users));
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public boolean retainsOrderInstances() {
+        return true;
     }
 
     @Override
     public List<User> findAll() {
-        return new ArrayList<>(userMap.values());
+        return snapshot.get().users();
     }
 
     @Override
     public List<User> findByOrderId(Long orderId) {
-        return userMap.values().stream()
-                .filter(user -> user.getOrders().stream()
-                        .anyMatch(order -> order.getOrderId().equals(orderId)))
-                .map(this::cloneUserWithFilteredOrders)
-                .collect(Collectors.toList());
+        return snapshot.get().findByOrderId(orderId);
+    }
+
+    @Override
+    public List<User> findByOrderIds(Collection<Long> orderIds) {
+        return snapshot.get().findByOrderIds(orderIds);
     }
 
     @Override
     public List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return userMap.values().stream()
-                .filter(user -> user.getOrders().stream()
-                        .anyMatch(order -> isOrderInDateRange(order, startDate, endDate)))
-                .map(user -> filterUserOrdersByDateRange(user, startDate, endDate))
-                .collect(Collectors.toList());
+        return snapshot.get().findByDateRange(startDate, endDate);
     }
 
     @Override
-    public void clear() {
-        userMap.clear();
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return snapshot.get().findPage(after, limit);
     }
 
-    private boolean isOrderInDateRange(Order order, LocalDate startDate, LocalDate endDate) {
-        LocalDate orderDate = order.getDate();
-        return (startDate == null || !orderDate.isBefore(startDate)) &&
-                (endDate == null || !orderDate.isAfter(endDate));
+    @Override
+    public OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        return snapshot.get().findPageByDateRange(startDate, endDate, after, limit);
     }
 
-    private User filterUserOrdersByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        List<Order> filteredOrders = user.getOrders().stream()
-                .filter(order -> isOrderInDateRange(order, startDate, endDate))
-                .collect(Collectors.toList());
+    @Override
+    public OrderStatistics statistics() {
+        return snapshot.get().statistics();
+    }
 
-        return User.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .orders(filteredOrders)
-                .build();
+    @Override
+    public synchronized void clear() {
+        publish(OrderSnapshot.EMPTY);
     }
 
-    private User cloneUserWithFilteredOrders(User user) {
-        Long orderId = user.getOrders().stream()
-                .filter(order -> user.getOrders().stream()
-                        .anyMatch(o -> o.getOrderId().equals(order.getOrderId())))
-                .findFirst()
-                .map(Order::getOrderId)
-                .orElse(null);
-
-        List<Order> filteredOrders = user.getOrders().stream()
-                .filter(order -> order.getOrderId().equals(orderId))
-                .collect(Collectors.toList());
-
-        return User.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .orders(filteredOrders)
-                .build();
+    private void publish(OrderSnapshot next) {
+        version.incrementAndGet();
+        snapshot.set(next);
+        version.incrementAndGet();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,510 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.config.RepositoryProperties;
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.LongObjectHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repository backed by the configured relational database. Uploads are written with
+ * JDBC batches of multi-row inserts; lookups by order id and date ranges, and keyset
+ * pages, run as indexed SQL, so only the returned orders are loaded.
+ */
+@Repository
+@ConditionalOnProperty(name = "orders.repository.type", havingValue = "jdbc")
+public class JdbcOrderRepository implements OrderRepository {
+
+    private static final int ROWS_PER_STATEMENT = 32;
+
+    private static final String SELECT_ROWS =
+            "SELECT u.user_id, u.name, o.order_id, o.epoch_day, o.total_cents, p.product_id, p.value_cents ";
+
+    private static final String JOIN_PRODUCTS =
+            " LEFT JOIN order_products p ON p.user_id = o.user_id AND p.order_id = o.order_id";
+
+    private static final String FIND_ALL = SELECT_ROWS
+            + "FROM order_users u LEFT JOIN orders o ON o.user_id = u.user_id" + JOIN_PRODUCTS
+            + " ORDER BY u.position, o.position, p.position";
+
+    private static final String FIND_USERS = SELECT_ROWS
+            + "FROM order_users u LEFT JOIN orders o ON o.user_id = u.user_id" + JOIN_PRODUCTS
+            + " WHERE u.user_id = ANY(?) ORDER BY u.position, o.position, p.position";
+
+    private static final String FIND_BY_ORDER_ID = SELECT_ROWS
+            + "FROM orders o JOIN order_users u ON u.user_id = o.user_id" + JOIN_PRODUCTS
+            + " WHERE o.order_id = ? ORDER BY u.position, p.position";
+
+    private static final String FIND_BY_ORDER_IDS = SELECT_ROWS
+            + "FROM orders o JOIN order_users u ON u.user_id = o.user_id" + JOIN_PRODUCTS
+            + " WHERE o.order_id = ANY(?) ORDER BY u.position, o.position, p.position";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong nextUserPosition;
+    private volatile VersionedStatistics statistics;
+
+    public JdbcOrderRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               RepositoryProperties repositoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(ROWS_PER_STATEMENT, repositoryProperties.getBatchSize());
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/orders-schema.sql"))
+                .execute(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        this.nextUserPosition = new AtomicLong(Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(position) + 1, 0) FROM order_users", Long.class)));
+    }
+
+    @Override
+    public synchronized void saveAll(List<User> users) {
+        write(connection -> save(connection, distinct(users)));
+    }
+
+    @Override
+    public synchronized void mergeAll(List<User> users) {
+        write(connection -> {
+            LongObjectHashMap<User> stored = new LongObjectHashMap<>();
+            findUsers(connection, distinct(users).keySet()).forEach(user -> stored.put(user.getUserId(), user));
+            save(connection, distinct(UserMerger.mergeAll(stored::get, users)));
+        });
+    }
+
+    @Override
+    public synchronized void replaceAll(List<User> users) {
+        write(connection -> {
+            deleteAll(connection);
+            Map<Long, User> distinctUsers = distinct(users);
+            insertUsers(connection, distinctUsers.values(), new LongObjectHashMap<>(0));
+            insertOrders(connection, distinctUsers.values());
+        });
+    }
+
+    @Override
+    public synchronized void clear() {
+        write(this::deleteAll);
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public int userCount() {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_users", Integer.class));
+    }
+
+    @Override
+    public List<User> findAll() {
+        UserRows rows = new UserRows(Integer.MAX_VALUE);
+        jdbcTemplate.query(FIND_ALL, rows);
+        return rows.users;
+    }
+
+    @Override
+    public List<User> findByOrderId(Long orderId) {
+        UserRows rows = new UserRows(Integer.MAX_VALUE);
+        jdbcTemplate.query(FIND_BY_ORDER_ID, rows, orderId);
+        return rows.users;
+    }
+
+    @Override
+    public List<User> findByOrderIds(Collection<Long> orderIds) {
+        return jdbcTemplate.execute((ConnectionCallback<List<User>>) connection -> {
+            UserRows rows = new UserRows(Integer.MAX_VALUE);
+            try (PreparedStatement statement = connection.prepareStatement(FIND_BY_ORDER_IDS)) {
+                statement.setArray(1, idArray(connection, new LinkedHashSet<>(orderIds)));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.processRow(resultSet);
+                    }
+                }
+            }
+            return rows.users;
+        });
+    }
+
+    @Override
+    public List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<Object> parameters = new ArrayList<>();
+        String range = dateRange("o.epoch_day", startDate, endDate, parameters);
+        UserRows rows = new UserRows(Integer.MAX_VALUE);
+        jdbcTemplate.query(SELECT_ROWS
+                + "FROM orders o JOIN order_users u ON u.user_id = o.user_id" + JOIN_PRODUCTS
+                + range + " ORDER BY o.epoch_day, o.user_id, o.order_id, p.position", rows, parameters.toArray());
+        return rows.users;
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        String where = "";
+        if (after != null) {
+            where = " WHERE user_id >= ? AND (user_id > ? OR order_id > ?)";
+            parameters.add(after.getUserId());
+            parameters.add(after.getUserId());
+            parameters.add(after.getOrderId());
+        }
+        return page("SELECT * FROM orders" + where + " ORDER BY user_id, order_id LIMIT ?",
+                "o.user_id, o.order_id", parameters, limit);
+    }
+
+    @Override
+    public OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder where = new StringBuilder(dateRange("epoch_day", startDate, endDate, parameters));
+        if (after != null) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ")
+                    .append("epoch_day >= ? AND (epoch_day > ? OR user_id > ? OR (user_id = ? AND order_id > ?))");
+            parameters.add(after.getEpochDay());
+            parameters.add(after.getEpochDay());
+            parameters.add(after.getUserId());
+            parameters.add(after.getUserId());
+            parameters.add(after.getOrderId());
+        }
+        return page("SELECT * FROM orders" + where + " ORDER BY epoch_day, user_id, order_id LIMIT ?",
+                "o.epoch_day, o.user_id, o.order_id", parameters, limit);
+    }
+
+    /**
+     * Rolls the stored orders up once per dataset version, streaming rows straight
+     * into the builder.
+     */
+    @Override
+    public OrderStatistics statistics() {
+        VersionedStatistics cached = statistics;
+        if (cached != null && cached.version() == version.get()) {
+            return cached.statistics();
+        }
+        synchronized (this) {
+            long current = version.get();
+            OrderStatistics.Builder builder = OrderStatistics.builder();
+            jdbcTemplate.query("SELECT o.user_id, u.name, o.epoch_day, o.total_cents FROM orders o "
+                    + "JOIN order_users u ON u.user_id = o.user_id", (RowCallbackHandler) rs ->
+                    builder.addOrder(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+            jdbcTemplate.query("SELECT o.epoch_day, p.product_id, p.value_cents FROM order_products p "
+                    + "JOIN orders o ON o.user_id = p.user_id AND o.order_id = p.order_id", (RowCallbackHandler) rs ->
+                    builder.addProduct(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+            OrderStatistics built = builder.build();
+            statistics = new VersionedStatistics(current, built);
+            return built;
+        }
+    }
+
+    private OrderPage page(String orderQuery, String orderBy, List<Object> parameters, int limit) {
+        parameters.add((long) limit + 1);
+        UserRows rows = new UserRows(limit);
+        jdbcTemplate.query(SELECT_ROWS
+                + "FROM (" + orderQuery + ") o JOIN order_users u ON u.user_id = o.user_id" + JOIN_PRODUCTS
+                + " ORDER BY " + orderBy + ", p.position", rows, parameters.toArray());
+        OrderCursor next = rows.truncated ? OrderCursor.of(rows.lastUser, rows.lastOrder) : null;
+        return new OrderPage(rows.users, next);
+    }
+
+    private static String dateRange(String column, LocalDate startDate, LocalDate endDate, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>(2);
+        if (startDate != null) {
+            conditions.add(column + " >= ?");
+            parameters.add(startDate.toEpochDay());
+        }
+        if (endDate != null) {
+            conditions.add(column + " <= ?");
+            parameters.add(endDate.toEpochDay());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private void write(ConnectionWork work) {
+        version.incrementAndGet();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                work.run(connection);
+                return null;
+            }));
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    private List<User> findUsers(Connection connection, Collection<Long> userIds) throws SQLException {
+        UserRows rows = new UserRows(Integer.MAX_VALUE);
+        try (PreparedStatement statement = connection.prepareStatement(FIND_USERS)) {
+            statement.setArray(1, idArray(connection, userIds));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.processRow(resultSet);
+                }
+            }
+        }
+        return rows.users;
+    }
+
+    /**
+     * Replaces the orders of the given users; stored users keep their position.
+     */
+    private void save(Connection connection, Map<Long, User> users) throws SQLException {
+        Array userIds = idArray(connection, users.keySet());
+        LongObjectHashMap<Long> positions = new LongObjectHashMap<>(users.size());
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT user_id, position FROM order_users WHERE user_id = ANY(?)")) {
+            statement.setArray(1, userIds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    positions.put(resultSet.getLong(1), resultSet.getLong(2));
+                }
+            }
+        }
+        for (String table : List.of("order_products", "orders", "order_users")) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE user_id = ANY(?)")) {
+                statement.setArray(1, userIds);
+                statement.executeUpdate();
+            }
+        }
+
+        insertUsers(connection, users.values(), positions);
+        insertOrders(connection, users.values());
+    }
+
+    private void insertUsers(Connection connection, Collection<User> users, LongObjectHashMap<Long> positions) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO order_users (user_id, name, position) VALUES (?, ?, ?)")) {
+            int batched = 0;
+            for (User user : users) {
+                Long position = positions.get(user.getUserId());
+                statement.setLong(1, user.getUserId());
+                statement.setString(2, user.getName());
+                statement.setLong(3, position != null ? position : nextUserPosition.getAndIncrement());
+                statement.addBatch();
+                if (++batched % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertOrders(Connection connection, Collection<User> users) throws SQLException {
+        try (RowBatch orders = new RowBatch(connection, "orders (user_id, order_id, position, epoch_day, total_cents)", batchSize);
+             RowBatch products = new RowBatch(connection, "order_products (user_id, order_id, position, product_id, value_cents)", batchSize)) {
+            for (User user : users) {
+                int orderPosition = 0;
+                for (Order order : user.getOrders()) {
+                    orders.add(user.getUserId(), order.getOrderId(), orderPosition++,
+                            order.getDate().toEpochDay(), order.getTotalCents());
+                    int productPosition = 0;
+                    for (Product product : order.getProducts()) {
+                        products.add(user.getUserId(), order.getOrderId(), productPosition++,
+                                product.getProductId(), product.getValueCents());
+                    }
+                }
+            }
+            orders.finish();
+            products.finish();
+        }
+    }
+
+    private void deleteAll(Connection connection) throws SQLException {
+        for (String table : List.of("order_products", "orders", "order_users")) {
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table)) {
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static Array idArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("BIGINT", ids.toArray());
+    }
+
+    private static Map<Long, User> distinct(List<User> users) {
+        Map<Long, User> distinctUsers = new LinkedHashMap<>();
+        users.forEach(user -> distinctUsers.put(user.getUserId(), user));
+        return distinctUsers;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionWork {
+        void run(Connection connection) throws SQLException;
+    }
+
+    private record VersionedStatistics(long version, OrderStatistics statistics) {
+    }
+
+    /**
+     * Buffers rows of five numeric columns and sends them as multi-row inserts of
+     * {@link #ROWS_PER_STATEMENT} rows, executed in JDBC batches. Leftover rows are
+     * written one per statement by {@link #finish()}.
+     */
+    private static final class RowBatch implements AutoCloseable {
+        private static final int COLUMNS = 5;
+
+        private final Connection connection;
+        private final String table;
+        private final int batchSize;
+        private final PreparedStatement statement;
+        private final long[] pending = new long[ROWS_PER_STATEMENT * COLUMNS];
+        private int pendingRows;
+        private int batchedRows;
+
+        private RowBatch(Connection connection, String table, int batchSize) throws SQLException {
+            this.connection = connection;
+            this.table = table;
+            this.batchSize = batchSize;
+            this.statement = connection.prepareStatement(insert(table, ROWS_PER_STATEMENT));
+        }
+
+        private void add(long first, long second, long third, long fourth, long fifth) throws SQLException {
+            int offset = pendingRows * COLUMNS;
+            pending[offset] = first;
+            pending[offset + 1] = second;
+            pending[offset + 2] = third;
+            pending[offset + 3] = fourth;
+            pending[offset + 4] = fifth;
+            if (++pendingRows < ROWS_PER_STATEMENT) {
+                return;
+            }
+
+            for (int i = 0; i < pending.length; i++) {
+                statement.setLong(i + 1, pending[i]);
+            }
+            statement.addBatch();
+            pendingRows = 0;
+            batchedRows += ROWS_PER_STATEMENT;
+            if (batchedRows >= batchSize) {
+                statement.executeBatch();
+                batchedRows = 0;
+            }
+        }
+
+        private void finish() throws SQLException {
+            if (batchedRows > 0) {
+                statement.executeBatch();
+                batchedRows = 0;
+            }
+            if (pendingRows == 0) {
+                return;
+            }
+            try (PreparedStatement single = connection.prepareStatement(insert(table, 1))) {
+                for (int row = 0; row < pendingRows; row++) {
+                    for (int column = 0; column < COLUMNS; column++) {
+                        single.setLong(column + 1, pending[row * COLUMNS + column]);
+                    }
+                    single.addBatch();
+                }
+                single.executeBatch();
+            }
+            pendingRows = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+
+        private static String insert(String table, int rows) {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES ");
+            for (int row = 0; row < rows; row++) {
+                sql.append(row == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * Groups joined user, order and product rows into users, in order of first
+     * appearance. Rows of an order must be adjacent. Stops after {@code maxOrders}
+     * orders and records whether more followed.
+     */
+    private static final class UserRows implements RowCallbackHandler {
+        private final int maxOrders;
+        private final LongObjectHashMap<User> usersById = new LongObjectHashMap<>();
+        private final List<User> users = new ArrayList<>();
+        private User lastUser;
+        private Order lastOrder;
+        private int orders;
+        private boolean truncated;
+
+        private UserRows(int maxOrders) {
+            this.maxOrders = maxOrders;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            if (truncated) {
+                return;
+            }
+            long userId = resultSet.getLong(1);
+            long orderId = resultSet.getLong(3);
+            boolean hasOrder = !resultSet.wasNull();
+            boolean newOrder = hasOrder
+                    && (lastOrder == null || lastUser.getUserId() != userId || lastOrder.getOrderId() != orderId);
+            if (newOrder && orders == maxOrders) {
+                truncated = true;
+                return;
+            }
+
+            User user = usersById.get(userId);
+            if (user == null) {
+                user = User.builder()
+                        .userId(userId)
+                        .name(resultSet.getString(2))
+                        .orders(new ArrayList<>())
+                        .build();
+                usersById.put(userId, user);
+                users.add(user);
+            }
+            if (!hasOrder) {
+                return;
+            }
+
+            if (newOrder) {
+                lastOrder = Order.builder()
+                        .orderId(orderId)
+                        .date(DateUtil.ofEpochDay(resultSet.getLong(4)))
+                        .totalCents(resultSet.getLong(5))
+                        .products(new ArrayList<>())
+                        .build();
+                lastUser = user;
+                user.getOrders().add(lastOrder);
+                orders++;
+            }
+            long productId = resultSet.getLong(6);
+            if (!resultSet.wasNull()) {
+                lastOrder.getProducts().add(Product.builder()
+                        .productId(productId)
+                        .valueCents(resultSet.getLong(7))
+                        .build());
+            }
+        }
+    }
+}
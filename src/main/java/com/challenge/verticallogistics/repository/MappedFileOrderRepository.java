@@ -0,0 +1,139 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.config.RepositoryProperties;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Columnar repository whose columns live in a memory-mapped snapshot file instead of
+ * the heap. Every write produces a new file that atomically replaces the previous
+ * one; on startup the last file is mapped again, so no upload has to be re-parsed.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "orders.repository.type", havingValue = "mapped")
+public class MappedFileOrderRepository implements OrderRepository {
+
+    private final Path storePath;
+    private final AtomicReference<ColumnarOrderSnapshot> snapshot;
+    private final AtomicLong version = new AtomicLong();
+
+    public MappedFileOrderRepository(RepositoryProperties repositoryProperties) {
+        this.storePath = repositoryProperties.getMappedPath().toAbsolutePath();
+        this.snapshot = new AtomicReference<>(load(storePath));
+    }
+
+    @Override
+    public synchronized void saveAll(List<User> users) {
+        publish(snapshot.get().withUsers(users));
+    }
+
+    @Override
+    public synchronized void mergeAll(List<User> users) {
+        publish(snapshot.get().withMerged(users));
+    }
+
+    @Override
+    public synchronized void replaceAll(List<User> users) {
+        publish(ColumnarOrderSnapshot.of(users));
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return snapshot.get().users();
+    }
+
+    @Override
+    public List<User> findByOrderId(Long orderId) {
+        return snapshot.get().findByOrderId(orderId);
+    }
+
+    @Override
+    public List<User> findByOrderIds(Collection<Long> orderIds) {
+        return snapshot.get().findByOrderIds(orderIds);
+    }
+
+    @Override
+    public List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        return snapshot.get().findByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return snapshot.get().findPage(after, limit);
+    }
+
+    @Override
+    public OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        return snapshot.get().findPageByDateRange(startDate, endDate, after, limit);
+    }
+
+    @Override
+    public OrderStatistics statistics() {
+        return snapshot.get().statistics();
+    }
+
+    @Override
+    public synchronized void clear() {
+        publish(ColumnarOrderSnapshot.EMPTY);
+    }
+
+    private void publish(ColumnarOrderSnapshot next) {
+        try {
+            Files.createDirectories(storePath.getParent());
+            Path temporary = Files.createTempFile(storePath.getParent(), storePath.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                next.writeTo(channel);
+                channel.force(true);
+            }
+            Files.move(temporary, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            ColumnarOrderSnapshot mapped;
+            try (FileChannel channel = FileChannel.open(storePath, StandardOpenOption.READ)) {
+                mapped = ColumnarOrderSnapshot.map(channel);
+            }
+            version.incrementAndGet();
+            snapshot.set(mapped);
+            version.incrementAndGet();
+        } catch (IOException e) {
+            throw new OrderProcessingException("Failed to persist orders to " + storePath, e);
+        }
+    }
+
+    private static ColumnarOrderSnapshot load(Path storePath) {
+        if (!Files.exists(storePath)) {
+            return ColumnarOrderSnapshot.EMPTY;
+        }
+
+        try (FileChannel channel = FileChannel.open(storePath, StandardOpenOption.READ)) {
+            ColumnarOrderSnapshot loaded = ColumnarOrderSnapshot.map(channel);
+            log.info("Mapped {} users from order snapshot {}", loaded.users().size(), storePath);
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable order snapshot {}: {}", storePath, e.getMessage());
+            return ColumnarOrderSnapshot.EMPTY;
+        }
+    }
+}
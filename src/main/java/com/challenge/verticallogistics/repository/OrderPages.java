@@ -0,0 +1,60 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset paging over an already materialised result, used by repositories that
+ * keep no index in (user, order) or (date, user, order) order.
+ */
+final class OrderPages {
+
+    static final Comparator<OrderCursor> KEY_ORDER = Comparator
+            .comparingLong(OrderCursor::getUserId)
+            .thenComparingLong(OrderCursor::getOrderId);
+
+    static final Comparator<OrderCursor> DATE_ORDER = Comparator
+            .comparingLong(OrderCursor::getEpochDay)
+            .thenComparing(KEY_ORDER);
+
+    private OrderPages() {
+    }
+
+    static OrderPage slice(List<User> users, OrderCursor after, int limit, Comparator<OrderCursor> order) {
+        List<Hit> hits = new ArrayList<>();
+        users.forEach(user -> user.getOrders().forEach(o -> {
+            OrderCursor key = OrderCursor.of(user, o);
+            if (after == null || order.compare(key, after) > 0) {
+                hits.add(new Hit(key, user, o));
+            }
+        }));
+        hits.sort((a, b) -> order.compare(a.key(), b.key()));
+
+        List<Hit> selected = hits.subList(0, Math.min(limit, hits.size()));
+        OrderCursor next = selected.size() < hits.size() && !selected.isEmpty()
+                ? selected.get(selected.size() - 1).key()
+                : null;
+
+        Map<Long, User> usersById = new LinkedHashMap<>();
+        selected.forEach(hit -> usersById
+                .computeIfAbsent(hit.user().getUserId(), userId -> User.builder()
+                        .userId(userId)
+                        .name(hit.user().getName())
+                        .orders(new ArrayList<>())
+                        .build())
+                .getOrders()
+                .add(hit.order()));
+        return new OrderPage(new ArrayList<>(usersById.values()), next);
+    }
+
+    private record Hit(OrderCursor key, User user, Order order) {
+    }
+}
@@ -1,15 +1,62 @@
 package com.challenge.verticallogistics.repository;
 
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
 import com.challenge.verticallogistics.model.User;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 public interface OrderRepository {
     void saveAll(List<User> users);
+    void replaceAll(List<User> users);
     List<User> findAll();
     List<User> findByOrderId(Long orderId);
+
+    /**
+     * Returns the orders with any of the given ids, grouped by user, resolved in one pass.
+     */
+    List<User> findByOrderIds(Collection<Long> orderIds);
     List<User> findByDateRange(LocalDate startDate, LocalDate endDate);
     void clear();
+
+    /**
+     * Changes whenever the stored dataset changes, so it can key derived data such as cached query results.
+     * It is odd while a write is being applied; a read that starts and ends under the same even
+     * version saw exactly that version.
+     */
+    long version();
+
+    default void mergeAll(List<User> users) {
+        Map<Long, User> stored = new HashMap<>();
+        findAll().forEach(user -> stored.put(user.getUserId(), user));
+        saveAll(UserMerger.mergeAll(stored::get, users));
+    }
+
+    /**
+     * Whether stored users and orders are the instances handed to the write methods,
+     * so anything attached to them at ingestion is still there when they are read.
+     */
+    default boolean retainsOrderInstances() {
+        return false;
+    }
+
+    default int userCount() {
+        return findAll().size();
+    }
+
+    default OrderStatistics statistics() {
+        return OrderStatistics.of(findAll());
+    }
+
+    default OrderPage findPage(OrderCursor after, int limit) {
+        return OrderPages.slice(findAll(), after, limit, OrderPages.KEY_ORDER);
+    }
+
+    default OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        return OrderPages.slice(findByDateRange(startDate, endDate), after, limit, OrderPages.DATE_ORDER);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.utils.LongObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, fully indexed view of the stored users. A new snapshot is built on
+ * every write and published as a whole, so readers never observe a partial upload.
+ */
+final class OrderSnapshot {
+
+    private static final Comparator<OrderEntry> KEY_ORDER = Comparator
+            .comparingLong(OrderEntry::userId)
+            .thenComparingLong(OrderEntry::orderId);
+
+    private static final Comparator<OrderEntry> DATE_ORDER = Comparator
+            .comparingLong(OrderEntry::epochDay)
+            .thenComparing(KEY_ORDER);
+
+    static final OrderSnapshot EMPTY = build(List.of());
+
+    private final List<User> users;
+    private final LongObjectHashMap<User> usersById;
+    private final LongObjectHashMap<OrderEntry[]> orderIdIndex;
+    private final OrderEntry[] entriesByKey;
+    private final OrderEntry[] entriesByDate;
+    private final OrderStatistics statistics;
+
+    private OrderSnapshot(List<User> users, LongObjectHashMap<User> usersById,
+                          LongObjectHashMap<OrderEntry[]> orderIdIndex,
+                          OrderEntry[] entriesByKey, OrderEntry[] entriesByDate,
+                          OrderStatistics statistics) {
+        this.users = Collections.unmodifiableList(users);
+        this.usersById = usersById;
+        this.orderIdIndex = orderIdIndex;
+        this.entriesByKey = entriesByKey;
+        this.entriesByDate = entriesByDate;
+        this.statistics = statistics;
+    }
+
+    static OrderSnapshot of(Collection<User> users) {
+        return users.isEmpty() ? EMPTY : build(users);
+    }
+
+    private static OrderSnapshot build(Collection<User> users) {
+        Map<Long, User> distinctUsers = new LinkedHashMap<>();
+        users.forEach(user -> distinctUsers.put(user.getUserId(), user));
+
+        LongObjectHashMap<User> usersById = new LongObjectHashMap<>(distinctUsers.size());
+        LongObjectHashMap<OrderEntry[]> orderIdIndex = new LongObjectHashMap<>();
+        List<OrderEntry> entries = new ArrayList<>();
+        distinctUsers.values().forEach(user -> {
+            usersById.put(user.getUserId(), user);
+            user.getOrders().forEach(order -> {
+                OrderEntry entry = OrderEntry.of(user, order);
+                index(orderIdIndex, entry);
+                entries.add(entry);
+            });
+        });
+
+        OrderEntry[] entriesByKey = entries.toArray(new OrderEntry[0]);
+        Arrays.sort(entriesByKey, KEY_ORDER);
+        OrderEntry[] entriesByDate = entries.toArray(new OrderEntry[0]);
+        Arrays.sort(entriesByDate, DATE_ORDER);
+        List<User> distinct = new ArrayList<>(distinctUsers.values());
+        return new OrderSnapshot(distinct, usersById, orderIdIndex, entriesByKey, entriesByDate,
+                OrderStatistics.of(distinct));
+    }
+
+    /**
+     * Returns a new snapshot in which the given users replace stored users with the same id.
+     */
+    OrderSnapshot withUsers(Collection<User> replacements) {
+        Map<Long, User> merged = new LinkedHashMap<>();
+        users.forEach(user -> merged.put(user.getUserId(), user));
+        replacements.forEach(user -> merged.put(user.getUserId(), user));
+        return of(merged.values());
+    }
+
+    /**
+     * Returns a new snapshot with the given users merged into the stored ones. Only the
+     * entries of touched users are rebuilt; the sorted indexes are spliced, not re-sorted,
+     * and the statistics are patched with the touched users' old and merged orders.
+     */
+    OrderSnapshot withMerged(List<User> additions) {
+        List<User> merged = UserMerger.mergeAll(usersById::get, additions);
+        if (merged.isEmpty()) {
+            return this;
+        }
+
+        LongObjectHashMap<User> nextUsersById = usersById.copy();
+        LongObjectHashMap<OrderEntry[]> nextOrderIdIndex = orderIdIndex.copy();
+        LongObjectHashMap<User> touchedUsers = new LongObjectHashMap<>(merged.size());
+        List<User> appendedUsers = new ArrayList<>();
+        List<User> replacedUsers = new ArrayList<>();
+        List<OrderEntry> added = new ArrayList<>();
+
+        merged.forEach(user -> {
+            User previous = nextUsersById.put(user.getUserId(), user);
+            touchedUsers.put(user.getUserId(), user);
+            if (previous != null) {
+                replacedUsers.add(previous);
+                previous.getOrders().forEach(order -> removeUser(nextOrderIdIndex, order.getOrderId(), user.getUserId()));
+            } else {
+                appendedUsers.add(user);
+            }
+            user.getOrders().forEach(order -> added.add(OrderEntry.of(user, order)));
+        });
+        added.forEach(entry -> index(nextOrderIdIndex, entry));
+
+        List<User> nextUsers = new ArrayList<>(users.size() + appendedUsers.size());
+        users.forEach(user -> {
+            User replacement = touchedUsers.get(user.getUserId());
+            nextUsers.add(replacement != null ? replacement : user);
+        });
+        nextUsers.addAll(appendedUsers);
+
+        OrderEntry[] addedByKey = added.toArray(new OrderEntry[0]);
+        Arrays.sort(addedByKey, KEY_ORDER);
+        OrderEntry[] addedByDate = added.toArray(new OrderEntry[0]);
+        Arrays.sort(addedByDate, DATE_ORDER);
+
+        return new OrderSnapshot(nextUsers, nextUsersById, nextOrderIdIndex,
+                splice(entriesByKey, touchedUsers, addedByKey, KEY_ORDER),
+                splice(entriesByDate, touchedUsers, addedByDate, DATE_ORDER),
+                statistics.withChanges(replacedUsers, merged));
+    }
+
+    OrderStatistics statistics() {
+        return statistics;
+    }
+
+    List<User> users() {
+        return users;
+    }
+
+    List<User> findByOrderId(long orderId) {
+        OrderEntry[] entries = orderIdIndex.get(orderId);
+        return groupByUser(entries == null ? List.of() : Arrays.asList(entries));
+    }
+
+    List<User> findByOrderIds(Collection<Long> orderIds) {
+        List<OrderEntry> entries = new ArrayList<>();
+        for (long orderId : new LinkedHashSet<>(orderIds)) {
+            OrderEntry[] matches = orderIdIndex.get(orderId);
+            if (matches != null) {
+                entries.addAll(Arrays.asList(matches));
+            }
+        }
+        return groupByUser(entries);
+    }
+
+    List<User> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        long fromDay = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long toDay = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        if (fromDay > toDay) {
+            return new ArrayList<>();
+        }
+
+        int from = lowerBound(fromDay);
+        int to = toDay == Long.MAX_VALUE ? entriesByDate.length : lowerBound(toDay + 1);
+        return groupByUser(Arrays.asList(entriesByDate).subList(from, to));
+    }
+
+    /**
+     * Returns up to {@code limit} orders after the cursor, ordered by user and order id.
+     */
+    OrderPage findPage(OrderCursor after, int limit) {
+        int from = after == null ? 0 : firstAfter(entriesByKey, 0, entriesByKey.length, KEY_ORDER, after);
+        return page(entriesByKey, from, entriesByKey.length, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} orders of the date range after the cursor, ordered by date.
+     */
+    OrderPage findPageByDateRange(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        long fromDay = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long toDay = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        if (fromDay > toDay) {
+            return new OrderPage(new ArrayList<>(), null);
+        }
+
+        int from = lowerBound(fromDay);
+        int to = toDay == Long.MAX_VALUE ? entriesByDate.length : lowerBound(toDay + 1);
+        if (after != null) {
+            from = firstAfter(entriesByDate, from, to, DATE_ORDER, after);
+        }
+        return page(entriesByDate, from, to, limit);
+    }
+
+    private static OrderPage page(OrderEntry[] entries, int from, int to, int limit) {
+        int end = (int) Math.min(to, (long) from + limit);
+        List<OrderEntry> selected = Arrays.asList(entries).subList(from, end);
+        OrderCursor next = null;
+        if (end < to && !selected.isEmpty()) {
+            OrderEntry last = selected.get(selected.size() - 1);
+            next = new OrderCursor(last.epochDay(), last.userId(), last.orderId());
+        }
+        return new OrderPage(groupByUser(selected), next);
+    }
+
+    private static int firstAfter(OrderEntry[] entries, int from, int to, Comparator<OrderEntry> order, OrderCursor cursor) {
+        OrderEntry probe = new OrderEntry(null, null, cursor.getEpochDay(), cursor.getUserId(), cursor.getOrderId());
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(entries[middle], probe) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = entriesByDate.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entriesByDate[middle].epochDay() < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static List<User> groupByUser(Collection<OrderEntry> entries) {
+        LongObjectHashMap<User> usersById = new LongObjectHashMap<>();
+        List<User> result = new ArrayList<>();
+        entries.forEach(entry -> usersById
+                .computeIfAbsent(entry.userId(), userId -> {
+                    User user = User.builder()
+                            .userId(userId)
+                            .name(entry.user().getName())
+                            .orders(new ArrayList<>())
+                            .build();
+                    result.add(user);
+                    return user;
+                })
+                .getOrders()
+                .add(entry.order()));
+
+        return result;
+    }
+
+    /**
+     * Merges sorted {@code additions} into sorted {@code entries}, dropping the entries of replaced users.
+     */
+    private static OrderEntry[] splice(OrderEntry[] entries, LongObjectHashMap<?> replacedUsers,
+                                       OrderEntry[] additions, Comparator<OrderEntry> order) {
+        OrderEntry[] result = new OrderEntry[entries.length + additions.length];
+        int size = 0;
+        int next = 0;
+        for (OrderEntry entry : entries) {
+            if (replacedUsers.containsKey(entry.userId())) {
+                continue;
+            }
+            while (next < additions.length && order.compare(additions[next], entry) < 0) {
+                result[size++] = additions[next++];
+            }
+            result[size++] = entry;
+        }
+        while (next < additions.length) {
+            result[size++] = additions[next++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Adds {@code entry} to its order id. Order ids are nearly always unique, so each
+     * id maps to an exactly sized array, which is copied rather than mutated.
+     */
+    private static void index(LongObjectHashMap<OrderEntry[]> orderIdIndex, OrderEntry entry) {
+        OrderEntry[] entries = orderIdIndex.get(entry.orderId());
+        if (entries == null) {
+            orderIdIndex.put(entry.orderId(), new OrderEntry[]{entry});
+        } else {
+            OrderEntry[] combined = Arrays.copyOf(entries, entries.length + 1);
+            combined[entries.length] = entry;
+            orderIdIndex.put(entry.orderId(), combined);
+        }
+    }
+
+    private static void removeUser(LongObjectHashMap<OrderEntry[]> orderIdIndex, long orderId, long userId) {
+        OrderEntry[] entries = orderIdIndex.get(orderId);
+        if (entries == null) {
+            return;
+        }
+        OrderEntry[] remaining = Arrays.stream(entries)
+                .filter(entry -> entry.userId() != userId)
+                .toArray(OrderEntry[]::new);
+        if (remaining.length == 0) {
+            orderIdIndex.remove(orderId);
+        } else {
+            orderIdIndex.put(orderId, remaining);
+        }
+    }
+
+    private record OrderEntry(User user, Order order, long epochDay, long userId, long orderId) {
+
+        static OrderEntry of(User user, Order order) {
+            return new OrderEntry(user, order, order.getDate().toEpochDay(), user.getUserId(), order.getOrderId());
+        }
+    }
+}
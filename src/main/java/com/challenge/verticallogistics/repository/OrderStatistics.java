@@ -0,0 +1,403 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.PeriodRevenue;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.ProductSales;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.model.UserSpend;
+import com.challenge.verticallogistics.utils.DateUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue rollups of a dataset, built once when the dataset is stored. Totals per
+ * day are kept in sorted arrays, next to compact per-day user and product totals,
+ * so date-range aggregations only touch the days in range. The rankings over the
+ * whole dataset are sorted up front.
+ * <p>
+ * Rollups are additive, so a change to the dataset is folded in through
+ * {@link #withChanges(Collection, Collection)}: only the days it touches are rebuilt.
+ */
+public final class OrderStatistics {
+
+    private static final Comparator<Ranked> BY_CENTS = Comparator
+            .comparingLong(Ranked::cents).reversed()
+            .thenComparingLong(Ranked::id);
+
+    private static final Comparator<Ranked> BY_COUNT = Comparator
+            .comparingLong(Ranked::count).reversed()
+            .thenComparing(BY_CENTS);
+
+    static final OrderStatistics EMPTY = builder().build();
+
+    private final long[] days;
+    private final long[] dayTotalCents;
+    private final long[] dayOrders;
+    private final DayRollup[] dayRollups;
+    private final Ranked[] usersBySpend;
+    private final Ranked[] productsByRevenue;
+    private final Ranked[] productsByCount;
+
+    private OrderStatistics(long[] days, long[] dayTotalCents, long[] dayOrders, DayRollup[] dayRollups,
+                            Ranked[] usersBySpend, Ranked[] productsByRevenue, Ranked[] productsByCount) {
+        this.days = days;
+        this.dayTotalCents = dayTotalCents;
+        this.dayOrders = dayOrders;
+        this.dayRollups = dayRollups;
+        this.usersBySpend = usersBySpend;
+        this.productsByRevenue = productsByRevenue;
+        this.productsByCount = productsByCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static OrderStatistics of(Collection<User> users) {
+        Builder builder = builder();
+        users.forEach(user -> addUser(builder, user, 1));
+        return builder.build();
+    }
+
+    /**
+     * Returns these statistics with the orders of {@code removed} taken out and the
+     * orders of {@code added} folded in. Days neither side ordered on are shared with
+     * this instance, and the rankings are patched for the changed ids, not re-sorted.
+     */
+    OrderStatistics withChanges(Collection<User> removed, Collection<User> added) {
+        Builder delta = builder();
+        removed.forEach(user -> addUser(delta, user, -1));
+        added.forEach(user -> addUser(delta, user, 1));
+        if (delta.days.isEmpty()) {
+            return this;
+        }
+
+        long[] changedDays = sortedKeys(delta.days);
+        int capacity = days.length + changedDays.length;
+        long[] nextDays = new long[capacity];
+        long[] nextTotalCents = new long[capacity];
+        long[] nextOrders = new long[capacity];
+        DayRollup[] nextRollups = new DayRollup[capacity];
+        Map<Long, Total> userChanges = new HashMap<>();
+        Map<Long, Total> productChanges = new HashMap<>();
+
+        int size = 0;
+        int d = 0;
+        for (long day : changedDays) {
+            for (; d < days.length && days[d] < day; d++, size++) {
+                nextDays[size] = days[d];
+                nextTotalCents[size] = dayTotalCents[d];
+                nextOrders[size] = dayOrders[d];
+                nextRollups[size] = dayRollups[d];
+            }
+
+            DayAccumulator change = delta.days.get(day);
+            fold(change.users, userChanges);
+            fold(change.products, productChanges);
+            boolean stored = d < days.length && days[d] == day;
+            long totalCents = change.totalCents + (stored ? dayTotalCents[d] : 0);
+            long orders = change.orders + (stored ? dayOrders[d] : 0);
+            DayRollup rollup = stored ? dayRollups[d].with(change) : DayRollup.of(change);
+            if (stored) {
+                d++;
+            }
+            if (orders != 0 || rollup.users().length != 0 || rollup.products().length != 0) {
+                nextDays[size] = day;
+                nextTotalCents[size] = totalCents;
+                nextOrders[size] = orders;
+                nextRollups[size++] = rollup;
+            }
+        }
+        for (; d < days.length; d++, size++) {
+            nextDays[size] = days[d];
+            nextTotalCents[size] = dayTotalCents[d];
+            nextOrders[size] = dayOrders[d];
+            nextRollups[size] = dayRollups[d];
+        }
+
+        return new OrderStatistics(
+                Arrays.copyOf(nextDays, size),
+                Arrays.copyOf(nextTotalCents, size),
+                Arrays.copyOf(nextOrders, size),
+                Arrays.copyOf(nextRollups, size),
+                patched(usersBySpend, userChanges, BY_CENTS),
+                patched(productsByRevenue, productChanges, BY_CENTS),
+                patched(productsByCount, productChanges, BY_COUNT));
+    }
+
+    public List<PeriodRevenue> revenue(LocalDate startDate, LocalDate endDate, RevenueGranularity granularity) {
+        int from = from(startDate);
+        int to = to(endDate);
+        List<PeriodRevenue> result = new ArrayList<>();
+
+        int d = from;
+        while (d < to) {
+            LocalDate start = DateUtil.ofEpochDay(days[d]);
+            LocalDate periodEnd = granularity == RevenueGranularity.MONTH
+                    ? start.withDayOfMonth(start.lengthOfMonth())
+                    : start;
+            long periodEndDay = periodEnd.toEpochDay();
+
+            long cents = 0;
+            long orders = 0;
+            for (; d < to && days[d] <= periodEndDay; d++) {
+                cents += dayTotalCents[d];
+                orders += dayOrders[d];
+            }
+            LocalDate periodStart = granularity == RevenueGranularity.MONTH ? start.withDayOfMonth(1) : start;
+            result.add(new PeriodRevenue(periodStart, cents, orders));
+        }
+        return result;
+    }
+
+    public List<UserSpend> topUsers(LocalDate startDate, LocalDate endDate, int limit) {
+        Ranked[] ranked = usersBySpend;
+        int from = from(startDate);
+        int to = to(endDate);
+        if (from != 0 || to != days.length) {
+            Map<Long, Total> users = new HashMap<>();
+            for (int d = from; d < to; d++) {
+                fold(dayRollups[d].users(), users);
+            }
+            ranked = sorted(Ranked.of(users), BY_CENTS);
+        }
+
+        List<UserSpend> result = new ArrayList<>(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && i < limit; i++) {
+            Ranked user = ranked[i];
+            result.add(new UserSpend(user.id(), user.name(), user.cents(), user.count()));
+        }
+        return result;
+    }
+
+    public List<ProductSales> topProducts(LocalDate startDate, LocalDate endDate, int limit, ProductRanking ranking) {
+        Comparator<Ranked> order = ranking == ProductRanking.COUNT ? BY_COUNT : BY_CENTS;
+        Ranked[] ranked = ranking == ProductRanking.COUNT ? productsByCount : productsByRevenue;
+        int from = from(startDate);
+        int to = to(endDate);
+        if (from != 0 || to != days.length) {
+            Map<Long, Total> products = new HashMap<>();
+            for (int d = from; d < to; d++) {
+                fold(dayRollups[d].products(), products);
+            }
+            ranked = sorted(Ranked.of(products), order);
+        }
+
+        List<ProductSales> result = new ArrayList<>(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && i < limit; i++) {
+            Ranked product = ranked[i];
+            result.add(new ProductSales(product.id(), product.cents(), product.count()));
+        }
+        return result;
+    }
+
+    private int from(LocalDate startDate) {
+        return startDate == null ? 0 : lowerBound(startDate.toEpochDay());
+    }
+
+    private int to(LocalDate endDate) {
+        return endDate == null ? days.length : lowerBound(endDate.toEpochDay() + 1);
+    }
+
+    private int lowerBound(long epochDay) {
+        int index = Arrays.binarySearch(days, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void fold(Ranked[] rows, Map<Long, Total> totals) {
+        for (Ranked row : rows) {
+            totals.computeIfAbsent(row.id(), id -> new Total()).add(row.name(), row.cents(), row.count());
+        }
+    }
+
+    private static void fold(Map<Long, Total> changes, Map<Long, Total> totals) {
+        changes.forEach((id, change) ->
+                totals.computeIfAbsent(id, key -> new Total()).add(change.name, change.cents, change.count));
+    }
+
+    private static Ranked[] sorted(Ranked[] rows, Comparator<Ranked> order) {
+        Ranked[] copy = rows.clone();
+        Arrays.sort(copy, order);
+        return copy;
+    }
+
+    /**
+     * Applies {@code changes} to a sorted ranking: unchanged rows keep their order and
+     * are merged with the re-ranked changed rows, so only the changes are sorted.
+     */
+    private static Ranked[] patched(Ranked[] ranked, Map<Long, Total> changes, Comparator<Ranked> order) {
+        if (changes.isEmpty()) {
+            return ranked;
+        }
+
+        Map<Long, Total> updated = new HashMap<>(changes.size());
+        Ranked[] unchanged = new Ranked[ranked.length];
+        int unchangedCount = 0;
+        for (Ranked row : ranked) {
+            if (changes.containsKey(row.id())) {
+                updated.computeIfAbsent(row.id(), id -> new Total()).add(row.name(), row.cents(), row.count());
+            } else {
+                unchanged[unchangedCount++] = row;
+            }
+        }
+        fold(changes, updated);
+        Ranked[] changed = sorted(Ranked.of(updated), order);
+
+        Ranked[] result = new Ranked[unchangedCount + changed.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < unchangedCount; i++) {
+            while (next < changed.length && order.compare(changed[next], unchanged[i]) < 0) {
+                result[size++] = changed[next++];
+            }
+            result[size++] = unchanged[i];
+        }
+        while (next < changed.length) {
+            result[size++] = changed[next++];
+        }
+        return result;
+    }
+
+    private static long[] sortedKeys(Map<Long, ?> map) {
+        return map.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static void addUser(Builder builder, User user, int sign) {
+        for (Order order : user.getOrders()) {
+            long epochDay = order.getDate().toEpochDay();
+            builder.addOrder(user.getUserId(), user.getName(), epochDay, order.getTotalCents(), sign);
+            for (Product product : order.getProducts()) {
+                builder.addProduct(epochDay, product.getProductId(), product.getValueCents(), sign);
+            }
+        }
+    }
+
+    /**
+     * Accumulates orders and product lines in any order.
+     */
+    public static final class Builder {
+
+        private final Map<Long, DayAccumulator> days = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder addOrder(long userId, String userName, long epochDay, long totalCents) {
+            return addOrder(userId, userName, epochDay, totalCents, 1);
+        }
+
+        public Builder addProduct(long epochDay, long productId, long valueCents) {
+            return addProduct(epochDay, productId, valueCents, 1);
+        }
+
+        public OrderStatistics build() {
+            long[] sortedDays = sortedKeys(days);
+            long[] totalCents = new long[sortedDays.length];
+            long[] orders = new long[sortedDays.length];
+            DayRollup[] rollups = new DayRollup[sortedDays.length];
+
+            Map<Long, Total> users = new HashMap<>();
+            Map<Long, Total> products = new HashMap<>();
+            for (int d = 0; d < sortedDays.length; d++) {
+                DayAccumulator day = days.get(sortedDays[d]);
+                totalCents[d] = day.totalCents;
+                orders[d] = day.orders;
+                rollups[d] = DayRollup.of(day);
+                fold(day.users, users);
+                fold(day.products, products);
+            }
+
+            Ranked[] rankedProducts = Ranked.of(products);
+            return new OrderStatistics(sortedDays, totalCents, orders, rollups,
+                    sorted(Ranked.of(users), BY_CENTS),
+                    sorted(rankedProducts, BY_CENTS),
+                    sorted(rankedProducts, BY_COUNT));
+        }
+
+        private Builder addOrder(long userId, String userName, long epochDay, long totalCents, int sign) {
+            DayAccumulator day = days.computeIfAbsent(epochDay, key -> new DayAccumulator());
+            day.totalCents += sign * totalCents;
+            day.orders += sign;
+            day.users.computeIfAbsent(userId, key -> new Total()).add(userName, sign * totalCents, sign);
+            return this;
+        }
+
+        private Builder addProduct(long epochDay, long productId, long valueCents, int sign) {
+            days.computeIfAbsent(epochDay, key -> new DayAccumulator())
+                    .products.computeIfAbsent(productId, key -> new Total())
+                    .add(null, sign * valueCents, sign);
+            return this;
+        }
+    }
+
+    private static final class DayAccumulator {
+        private final Map<Long, Total> users = new HashMap<>();
+        private final Map<Long, Total> products = new HashMap<>();
+        private long totalCents;
+        private long orders;
+    }
+
+    private static final class Total {
+        private String name;
+        private long cents;
+        private long count;
+
+        private void add(String name, long cents, long count) {
+            if (this.name == null) {
+                this.name = name;
+            }
+            this.cents += cents;
+            this.count += count;
+        }
+    }
+
+    private record DayRollup(Ranked[] users, Ranked[] products) {
+
+        static DayRollup of(DayAccumulator day) {
+            return new DayRollup(Ranked.of(day.users), Ranked.of(day.products));
+        }
+
+        DayRollup with(DayAccumulator change) {
+            return new DayRollup(combined(users, change.users), combined(products, change.products));
+        }
+
+        private static Ranked[] combined(Ranked[] rows, Map<Long, Total> changes) {
+            if (changes.isEmpty()) {
+                return rows;
+            }
+            Map<Long, Total> totals = new HashMap<>();
+            OrderStatistics.fold(rows, totals);
+            OrderStatistics.fold(changes, totals);
+            return Ranked.of(totals);
+        }
+    }
+
+    /**
+     * Total of one user or product; {@code name} is only set for users.
+     */
+    private record Ranked(long id, String name, long cents, long count) {
+
+        static Ranked[] of(Map<Long, Total> totals) {
+            Ranked[] rows = new Ranked[totals.size()];
+            int i = 0;
+            for (Map.Entry<Long, Total> entry : totals.entrySet()) {
+                Total total = entry.getValue();
+                // Rows whose orders were all removed drop out of the rollup
+                if (total.count != 0) {
+                    rows[i++] = new Ranked(entry.getKey(), total.name, total.cents, total.count);
+                }
+            }
+            return i == rows.length ? rows : Arrays.copyOf(rows, i);
+        }
+    }
+}
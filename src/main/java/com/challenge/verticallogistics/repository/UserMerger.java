@@ -0,0 +1,67 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Folds users of an appended upload into the stored ones. Stored objects may be
+ * shared with readers, so merged users and orders are always new instances.
+ */
+final class UserMerger {
+
+    private UserMerger() {
+    }
+
+    /**
+     * Returns the merged version of every user in {@code additions}, looking the
+     * stored version up through {@code stored}. Users absent from the store are
+     * returned as they are.
+     */
+    static List<User> mergeAll(LongFunction<User> stored, List<User> additions) {
+        Map<Long, User> merged = new LinkedHashMap<>();
+        additions.forEach(addition -> {
+            User current = merged.get(addition.getUserId());
+            if (current == null) {
+                current = stored.apply(addition.getUserId());
+            }
+            merged.put(addition.getUserId(), current == null ? addition : merge(current, addition));
+        });
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Appends the orders of {@code addition} to {@code user}. Orders present in both
+     * keep their original date and receive the new products, with the total updated.
+     */
+    static User merge(User user, User addition) {
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        user.getOrders().forEach(order -> orders.put(order.getOrderId(), order));
+        addition.getOrders().forEach(order -> orders.merge(order.getOrderId(), order, UserMerger::merge));
+
+        return User.builder()
+                .userId(user.getUserId())
+                .name(user.getName())
+                .orders(new ArrayList<>(orders.values()))
+                .build();
+    }
+
+    private static Order merge(Order order, Order addition) {
+        List<Product> products = new ArrayList<>(order.getProducts().size() + addition.getProducts().size());
+        products.addAll(order.getProducts());
+        products.addAll(addition.getProducts());
+
+        return Order.builder()
+                .orderId(order.getOrderId())
+                .date(order.getDate())
+                .totalCents(order.getTotalCents() + addition.getTotalCents())
+                .products(products)
+                .build();
+    }
+}
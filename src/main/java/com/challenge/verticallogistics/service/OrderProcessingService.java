@@ -1,14 +1,43 @@
 package com.challenge.verticallogistics.service;
 
+import com.challenge.verticallogistics.dto.request.DateRangeRequest;
+import com.challenge.verticallogistics.dto.response.OrderLookupResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersPageResponse;
 import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.model.UploadSummary;
+import com.challenge.verticallogistics.writer.OrderStream;
+import com.challenge.verticallogistics.writer.StreamFormat;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 public interface OrderProcessingService {
-    List<UserOrdersResponse> processOrderFile(MultipartFile file);
+    List<UserOrdersResponse> processOrderFile(MultipartFile file, UploadMode mode);
+    UploadSummary importOrderFile(Path file, UploadMode mode, LongAdder linesProcessed);
     List<UserOrdersResponse> getAllOrders();
     List<UserOrdersResponse> getOrdersByOrderId(Long orderId);
+    OrderLookupResponse getOrdersByOrderIds(List<Long> orderIds);
     List<UserOrdersResponse> getOrdersByDateRange(LocalDate startDate, LocalDate endDate);
+    UserOrdersPageResponse getOrdersPage(LocalDate startDate, LocalDate endDate, String cursor, int limit);
+
+    /**
+     * Runs the query now and returns the selected orders, to be written in the given format later.
+     */
+    OrderStream streamOrders(DateRangeRequest request, StreamFormat format);
+
+    /**
+     * Whether stored orders carry the JSON encoded at upload, so JSON responses are
+     * cheaper to write through {@link #streamOrders} than to map and serialise.
+     */
+    boolean writesJsonFragments();
+
+    /**
+     * Identifies the stored dataset; it changes with every write and differs between
+     * application runs, so it can serve as a strong ETag for query responses. Null
+     * while a write is being applied.
+     */
+    String datasetTag();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.challenge.verticallogistics.service;
+
+import com.challenge.verticallogistics.dto.response.RevenueResponse;
+import com.challenge.verticallogistics.dto.response.TopProductResponse;
+import com.challenge.verticallogistics.dto.response.TopUserResponse;
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderStatisticsService {
+    List<RevenueResponse> getRevenue(LocalDate startDate, LocalDate endDate, RevenueGranularity granularity);
+    List<TopUserResponse> getTopUsers(LocalDate startDate, LocalDate endDate, int limit);
+    List<TopProductResponse> getTopProducts(LocalDate startDate, LocalDate endDate, int limit, ProductRanking ranking);
+}
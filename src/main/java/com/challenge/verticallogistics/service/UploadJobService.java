@@ -0,0 +1,11 @@
+package com.challenge.verticallogistics.service;
+
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+public interface UploadJobService {
+    UploadJobResponse submit(MultipartFile file, UploadMode mode);
+    Optional<UploadJobResponse> findJob(String jobId);
+}
@@ -0,0 +1,11 @@
+package com.challenge.verticallogistics.service;
+
+/**
+ * How an uploaded file is combined with the orders already stored.
+ */
+public enum UploadMode {
+    /** The file becomes the whole dataset. */
+    REPLACE,
+    /** The file's orders and products are merged into the stored users and orders. */
+    APPEND
+}
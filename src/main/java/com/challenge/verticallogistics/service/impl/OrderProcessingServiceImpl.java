@@ -1,25 +1,52 @@
 package com.challenge.verticallogistics.service.impl;
 
+import com.challenge.verticallogistics.cache.OrderQueryCache;
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.dto.request.DateRangeRequest;
+import com.challenge.verticallogistics.dto.response.OrderLookupResponse;
 import com.challenge.verticallogistics.dto.response.OrderResponse;
 import com.challenge.verticallogistics.dto.response.ProductResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersPageResponse;
 import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
 import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.metrics.OrderMetrics;
 import com.challenge.verticallogistics.model.Order;
-import com.challenge.verticallogistics.model.OrderLine;
+import com.challenge.verticallogistics.model.OrderCursor;
+import com.challenge.verticallogistics.model.OrderPage;
 import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.UploadSummary;
 import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.normalizer.NormalizedOrders;
+import com.challenge.verticallogistics.normalizer.OrderNormalizer;
+import com.challenge.verticallogistics.normalizer.StripedOrderAggregator;
 import com.challenge.verticallogistics.parser.OrderFileParser;
+import com.challenge.verticallogistics.parser.OrderRecordFileParser;
+import com.challenge.verticallogistics.parser.ParallelOrderFileParser;
 import com.challenge.verticallogistics.repository.OrderRepository;
 import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.utils.CompressionUtil;
 import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.MoneyUtil;
+import com.challenge.verticallogistics.writer.OrderJsonWriter;
+import com.challenge.verticallogistics.writer.OrderStream;
+import com.challenge.verticallogistics.writer.StreamFormat;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,98 +54,204 @@ import java.util.stream.Collectors;
 public class OrderProcessingServiceImpl implements OrderProcessingService {
 
     private final OrderFileParser orderFileParser;
+    private final OrderRecordFileParser orderRecordFileParser;
+    private final ParallelOrderFileParser parallelOrderFileParser;
     private final OrderRepository orderRepository;
+    private final IngestionProperties ingestionProperties;
+    private final OrderJsonWriter orderJsonWriter;
+    private final OrderMetrics orderMetrics;
+    private final OrderQueryCache orderQueryCache;
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
 
     @Override
-    public List<UserOrdersResponse> processOrderFile(MultipartFile file) {
+    public List<UserOrdersResponse> processOrderFile(MultipartFile file, UploadMode mode) {
         try {
-            List<OrderLine> orderLines = orderFileParser.parseOrderFile(file.getInputStream());
-            List<User> users = normalizeOrderLines(orderLines);
-            orderRepository.clear();
-            orderRepository.saveAll(users);
-            return mapToUserOrdersResponseList(users);
+            Timer.Sample total = orderMetrics.startTimer();
+
+            Timer.Sample stage = orderMetrics.startTimer();
+            NormalizedOrders normalizer = normalize(file);
+            orderMetrics.stopIngestionStage(stage, "parse");
+
+            List<User> users = store(normalizer, mode);
+
+            stage = orderMetrics.startTimer();
+            List<UserOrdersResponse> response = mapToUserOrdersResponseList(users);
+            orderMetrics.stopIngestionStage(stage, "map");
+
+            orderMetrics.stopIngestionStage(total, "total");
+            orderMetrics.recordUpload(file.getSize(), normalizer.getLineCount(),
+                    normalizer.getUserCount(), normalizer.getOrderCount());
+            return response;
         } catch (IOException e) {
             throw new OrderProcessingException("Failed to process file", e);
         }
     }
 
+    @Override
+    public UploadSummary importOrderFile(Path file, UploadMode mode, LongAdder linesProcessed) {
+        try {
+            Timer.Sample total = orderMetrics.startTimer();
+
+            Timer.Sample stage = orderMetrics.startTimer();
+            NormalizedOrders normalizer = normalize(file, linesProcessed);
+            orderMetrics.stopIngestionStage(stage, "parse");
+
+            store(normalizer, mode);
+
+            orderMetrics.stopIngestionStage(total, "total");
+            orderMetrics.recordUpload(Files.size(file), normalizer.getLineCount(),
+                    normalizer.getUserCount(), normalizer.getOrderCount());
+            return new UploadSummary(normalizer.getLineCount(), normalizer.getUserCount(), normalizer.getOrderCount());
+        } catch (IOException e) {
+            throw new OrderProcessingException("Failed to process file", e);
+        }
+    }
+
+    private List<User> store(NormalizedOrders normalizer, UploadMode mode) throws IOException {
+        Timer.Sample stage = orderMetrics.startTimer();
+        List<User> users = normalizer.toUsers();
+        orderMetrics.stopIngestionStage(stage, "assemble");
+
+        if (writesJsonFragments()) {
+            stage = orderMetrics.startTimer();
+            users = orderJsonWriter.withFragments(users);
+            orderMetrics.stopIngestionStage(stage, "encode");
+        }
+
+        stage = orderMetrics.startTimer();
+        if (mode == UploadMode.APPEND) {
+            orderRepository.mergeAll(users);
+        } else {
+            orderRepository.replaceAll(users);
+        }
+        orderMetrics.stopIngestionStage(stage, "store");
+        return users;
+    }
+
     @Override
     public List<UserOrdersResponse> getAllOrders() {
-        return mapToUserOrdersResponseList(orderRepository.findAll());
+        return orderMetrics.timeQuery("all", () -> orderQueryCache.get("all",
+                () -> mapToUserOrdersResponseList(orderRepository.findAll()),
+                OrderQueryCache::weigh));
     }
 
     @Override
     public List<UserOrdersResponse> getOrdersByOrderId(Long orderId) {
-        return mapToUserOrdersResponseList(orderRepository.findByOrderId(orderId));
+        return orderMetrics.timeQuery("order_id", () -> orderQueryCache.get("order_id",
+                () -> mapToUserOrdersResponseList(orderRepository.findByOrderId(orderId)),
+                OrderQueryCache::weigh, orderId));
+    }
+
+    @Override
+    public OrderLookupResponse getOrdersByOrderIds(List<Long> orderIds) {
+        return orderMetrics.timeQuery("order_ids", () -> lookup(new LinkedHashSet<>(orderIds)),
+                response -> response.getUsers().size());
     }
 
     @Override
     public List<UserOrdersResponse> getOrdersByDateRange(LocalDate startDate, LocalDate endDate) {
-        return mapToUserOrdersResponseList(orderRepository.findByDateRange(startDate, endDate));
-    }
-
-    private List<User> normalizeOrderLines(List<OrderLine> orderLines) {
-        // Group by userId
-        Map<String, Map<String, List<OrderLine>>> userOrdersMap = orderLines.stream()
-                .collect(Collectors.groupingBy(OrderLine::getUserId,
-                        Collectors.groupingBy(OrderLine::getOrderId)));
-
-        List<User> users = new ArrayList<>();
-
-        // Process each user
-        userOrdersMap.forEach((userId, ordersMap) -> {
-            String userName = ordersMap.values().stream()
-                    .flatMap(Collection::stream)
-                    .findFirst()
-                    .map(OrderLine::getUserName)
-                    .orElse("");
-
-            List<Order> orders = new ArrayList<>();
-
-            // Process each order for the user
-            ordersMap.forEach((orderId, orderLinesList) -> {
-                List<Product> products = new ArrayList<>();
-                BigDecimal orderTotal = BigDecimal.ZERO;
-                LocalDate orderDate = null;
-
-                // Process each product in the order
-                for (OrderLine line : orderLinesList) {
-                    BigDecimal productValue = new BigDecimal(line.getProductValue().trim());
-                    orderTotal = orderTotal.add(productValue);
-
-                    // Parse the date only once per order
-                    if (orderDate == null) {
-                        orderDate = DateUtil.parseFromLegacyFormat(line.getPurchaseDate());
-                    }
-
-                    Product product = Product.builder()
-                            .productId(Long.parseLong(line.getProductId()))
-                            .value(productValue)
-                            .build();
-
-                    products.add(product);
-                }
-
-                Order order = Order.builder()
-                        .orderId(Long.parseLong(orderId))
-                        .date(orderDate)
-                        .total(orderTotal)
-                        .products(products)
-                        .build();
-
-                orders.add(order);
-            });
-
-            User user = User.builder()
-                    .userId(Long.parseLong(userId))
-                    .name(userName.trim())
-                    .orders(orders)
-                    .build();
-
-            users.add(user);
-        });
+        return orderMetrics.timeQuery("date_range", () -> orderQueryCache.get("date_range",
+                () -> mapToUserOrdersResponseList(orderRepository.findByDateRange(startDate, endDate)),
+                OrderQueryCache::weigh, startDate, endDate));
+    }
 
-        return users;
+    @Override
+    public UserOrdersPageResponse getOrdersPage(LocalDate startDate, LocalDate endDate, String cursor, int limit) {
+        OrderCursor after = cursor != null && !cursor.isEmpty() ? OrderCursor.parse(cursor) : null;
+
+        return orderMetrics.timeQuery("page",
+                () -> orderQueryCache.get("page", () -> findPage(startDate, endDate, after, limit),
+                        response -> OrderQueryCache.weigh(response.getUsers()), startDate, endDate, after, limit),
+                response -> response.getUsers().size());
+    }
+
+    @Override
+    public OrderStream streamOrders(DateRangeRequest request, StreamFormat format) {
+        List<User> users = orderMetrics.timeQuery("stream", () -> findUsers(request));
+        return outputStream -> orderJsonWriter.write(users, format, outputStream);
+    }
+
+    @Override
+    public boolean writesJsonFragments() {
+        return ingestionProperties.isJsonFragments() && orderRepository.retainsOrderInstances();
+    }
+
+    @Override
+    public String datasetTag() {
+        long version = orderRepository.version();
+        return (version & 1) != 0 ? null : bootId + "-" + version;
+    }
+
+    private UserOrdersPageResponse findPage(LocalDate startDate, LocalDate endDate, OrderCursor after, int limit) {
+        OrderPage page = startDate != null || endDate != null
+                ? orderRepository.findPageByDateRange(startDate, endDate, after, limit)
+                : orderRepository.findPage(after, limit);
+
+        return UserOrdersPageResponse.builder()
+                .users(mapToUserOrdersResponseList(page.getUsers()))
+                .next_cursor(page.getNext() != null ? page.getNext().format() : null)
+                .build();
+    }
+
+    private OrderLookupResponse lookup(Set<Long> orderIds) {
+        List<User> users = orderRepository.findByOrderIds(orderIds);
+        Set<Long> missing = new LinkedHashSet<>(orderIds);
+        users.forEach(user -> user.getOrders().forEach(order -> missing.remove(order.getOrderId())));
+
+        return OrderLookupResponse.builder()
+                .users(mapToUserOrdersResponseList(users))
+                .missing_order_ids(new ArrayList<>(missing))
+                .build();
+    }
+
+    private List<User> findUsers(DateRangeRequest request) {
+        if (request.getOrderId() != null && !request.getOrderId().isEmpty()) {
+            return orderRepository.findByOrderId(Long.parseLong(request.getOrderId()));
+        }
+        if (request.getStartDate() != null || request.getEndDate() != null) {
+            return orderRepository.findByDateRange(request.getStartDate(), request.getEndDate());
+        }
+        return orderRepository.findAll();
+    }
+
+    private NormalizedOrders normalize(MultipartFile file) throws IOException {
+        if (ingestionProperties.getParser() == IngestionProperties.ParserMode.STREAM) {
+            OrderNormalizer normalizer = new OrderNormalizer();
+            try (InputStream inputStream = CompressionUtil.decompress(file.getInputStream())) {
+                orderFileParser.parseOrderFile(inputStream, normalizer);
+            }
+            return normalizer;
+        }
+
+        // Spool the decompressed upload to disk so the byte-level parsers can map it
+        Path spooled = Files.createTempFile("orders-", ".txt");
+        try {
+            CompressionUtil.transferDecompressed(file, spooled);
+            return normalize(spooled, new LongAdder());
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private NormalizedOrders normalize(Path file, LongAdder linesProcessed) throws IOException {
+        IngestionProperties.ParserMode parserMode = ingestionProperties.getParser();
+        if (parserMode == IngestionProperties.ParserMode.PARALLEL) {
+            StripedOrderAggregator aggregator =
+                    new StripedOrderAggregator(ingestionProperties.getParallelism(), linesProcessed);
+            parallelOrderFileParser.parseOrderFile(file, aggregator::chunk);
+            return aggregator;
+        }
+
+        OrderNormalizer normalizer = new OrderNormalizer(linesProcessed);
+        if (parserMode == IngestionProperties.ParserMode.STREAM) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                orderFileParser.parseOrderFile(inputStream, normalizer);
+            }
+            normalizer.onEnd();
+        } else {
+            orderRecordFileParser.parseOrderFile(file, normalizer);
+        }
+        return normalizer;
     }
 
     private List<UserOrdersResponse> mapToUserOrdersResponseList(List<User> users) {
@@ -140,7 +273,7 @@ public class OrderProcessingServiceImpl implements OrderProcessingService {
     private OrderResponse mapToOrderResponse(Order order) {
         return OrderResponse.builder()
                 .order_id(order.getOrderId())
-                .total(order.getTotal().toString())
+                .total(MoneyUtil.format(order.getTotalCents()))
                 .date(DateUtil.formatToApiFormat(order.getDate()))
                 .products(order.getProducts().stream()
                         .map(this::mapToProductResponse)
@@ -151,7 +284,7 @@ public class OrderProcessingServiceImpl implements OrderProcessingService {
     private ProductResponse mapToProductResponse(Product product) {
         return ProductResponse.builder()
                 .product_id(product.getProductId())
-                .value(product.getValue().toString())
+                .value(MoneyUtil.format(product.getValueCents()))
                 .build();
     }
 }
\ No newline at end of file
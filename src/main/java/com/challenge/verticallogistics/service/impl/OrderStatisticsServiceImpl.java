@@ -0,0 +1,81 @@
+package com.challenge.verticallogistics.service.impl;
+
+import com.challenge.verticallogistics.dto.response.RevenueResponse;
+import com.challenge.verticallogistics.dto.response.TopProductResponse;
+import com.challenge.verticallogistics.dto.response.TopUserResponse;
+import com.challenge.verticallogistics.metrics.OrderMetrics;
+import com.challenge.verticallogistics.model.PeriodRevenue;
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.ProductSales;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+import com.challenge.verticallogistics.model.UserSpend;
+import com.challenge.verticallogistics.repository.OrderRepository;
+import com.challenge.verticallogistics.service.OrderStatisticsService;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OrderStatisticsServiceImpl implements OrderStatisticsService {
+
+    private final OrderRepository orderRepository;
+    private final OrderMetrics orderMetrics;
+
+    @Override
+    public List<RevenueResponse> getRevenue(LocalDate startDate, LocalDate endDate, RevenueGranularity granularity) {
+        return orderMetrics.time("revenue", () -> orderRepository.statistics()
+                .revenue(startDate, endDate, granularity).stream()
+                .map(revenue -> mapToRevenueResponse(revenue, granularity))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<TopUserResponse> getTopUsers(LocalDate startDate, LocalDate endDate, int limit) {
+        return orderMetrics.time("top_users", () -> orderRepository.statistics()
+                .topUsers(startDate, endDate, limit).stream()
+                .map(this::mapToTopUserResponse)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<TopProductResponse> getTopProducts(LocalDate startDate, LocalDate endDate, int limit, ProductRanking ranking) {
+        return orderMetrics.time("top_products", () -> orderRepository.statistics()
+                .topProducts(startDate, endDate, limit, ranking).stream()
+                .map(this::mapToTopProductResponse)
+                .collect(Collectors.toList()));
+    }
+
+    private RevenueResponse mapToRevenueResponse(PeriodRevenue revenue, RevenueGranularity granularity) {
+        return RevenueResponse.builder()
+                .period(granularity == RevenueGranularity.MONTH
+                        ? YearMonth.from(revenue.getStart()).toString()
+                        : DateUtil.formatToApiFormat(revenue.getStart()))
+                .total(MoneyUtil.format(revenue.getTotalCents()))
+                .orders(revenue.getOrders())
+                .build();
+    }
+
+    private TopUserResponse mapToTopUserResponse(UserSpend user) {
+        return TopUserResponse.builder()
+                .user_id(user.getUserId())
+                .name(user.getName())
+                .total(MoneyUtil.format(user.getTotalCents()))
+                .orders(user.getOrders())
+                .build();
+    }
+
+    private TopProductResponse mapToTopProductResponse(ProductSales product) {
+        return TopProductResponse.builder()
+                .product_id(product.getProductId())
+                .revenue(MoneyUtil.format(product.getRevenueCents()))
+                .count(product.getCount())
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.challenge.verticallogistics.service.impl;
+
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import com.challenge.verticallogistics.model.UploadSummary;
+import com.challenge.verticallogistics.service.UploadMode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one asynchronous upload. Written by the job thread and read by
+ * status requests, hence the volatile fields.
+ */
+final class UploadJob {
+
+    enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final UploadMode mode;
+    private final long bytes;
+    private final Instant submittedAt;
+    private final LongAdder linesProcessed = new LongAdder();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile UploadSummary summary;
+    private volatile String error;
+
+    UploadJob(String id, UploadMode mode, long bytes, Instant submittedAt) {
+        this.id = id;
+        this.mode = mode;
+        this.bytes = bytes;
+        this.submittedAt = submittedAt;
+    }
+
+    String id() {
+        return id;
+    }
+
+    UploadMode mode() {
+        return mode;
+    }
+
+    LongAdder linesProcessed() {
+        return linesProcessed;
+    }
+
+    void start(Instant now) {
+        startedAt = now;
+        status = Status.RUNNING;
+    }
+
+    void complete(UploadSummary summary, Instant now) {
+        this.summary = summary;
+        finishedAt = now;
+        status = Status.COMPLETED;
+    }
+
+    void fail(String error, Instant now) {
+        this.error = error;
+        finishedAt = now;
+        status = Status.FAILED;
+    }
+
+    UploadJobResponse toResponse(Clock clock) {
+        // Read the status first: the fields it depends on are written before it
+        Status current = status;
+        UploadSummary result = summary;
+        long lines = result != null ? result.getLines() : linesProcessed.sum();
+
+        Long linesPerSecond = null;
+        if (startedAt != null) {
+            Instant end = finishedAt != null ? finishedAt : clock.instant();
+            long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+            linesPerSecond = lines * 1000 / millis;
+        }
+
+        return UploadJobResponse.builder()
+                .job_id(id)
+                .status(current.name())
+                .mode(mode.name())
+                .bytes(bytes)
+                .lines_processed(lines)
+                .lines_per_second(linesPerSecond)
+                .users(result != null ? result.getUsers() : null)
+                .orders(result != null ? result.getOrders() : null)
+                .error(error)
+                .submitted_at(submittedAt)
+                .started_at(startedAt)
+                .finished_at(finishedAt)
+                .build();
+    }
+}
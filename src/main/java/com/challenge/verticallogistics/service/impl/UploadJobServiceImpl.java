@@ -0,0 +1,124 @@
+package com.challenge.verticallogistics.service.impl;
+
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.model.UploadSummary;
+import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.UploadJobService;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.utils.CompressionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Runs uploads off the request thread. The request only spools the file to disk;
+ * parsing, normalization and storage happen on the bounded upload job executor.
+ */
+@Slf4j
+@Service
+public class UploadJobServiceImpl implements UploadJobService {
+
+    private final OrderProcessingService orderProcessingService;
+    private final ThreadPoolExecutor uploadJobExecutor;
+    private final int history;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finishedJobs = new ArrayDeque<>();
+
+    public UploadJobServiceImpl(OrderProcessingService orderProcessingService,
+                                ThreadPoolExecutor uploadJobExecutor,
+                                IngestionProperties ingestionProperties) {
+        this.orderProcessingService = orderProcessingService;
+        this.uploadJobExecutor = uploadJobExecutor;
+        this.history = Math.max(1, ingestionProperties.getJobs().getHistory());
+    }
+
+    @Override
+    public UploadJobResponse submit(MultipartFile file, UploadMode mode) {
+        // The multipart file is gone once the request ends, so keep a copy for the job
+        Path spooled = spool(file);
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), mode, file.getSize(), clock.instant());
+        jobs.put(job.id(), job);
+
+        try {
+            uploadJobExecutor.execute(() -> run(job, spooled));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            deleteQuietly(spooled);
+            throw e;
+        }
+        return job.toResponse(clock);
+    }
+
+    @Override
+    public Optional<UploadJobResponse> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(job -> job.toResponse(clock));
+    }
+
+    private void run(UploadJob job, Path spooled) {
+        job.start(clock.instant());
+        try {
+            UploadSummary summary = orderProcessingService.importOrderFile(spooled, job.mode(), job.linesProcessed());
+            job.complete(summary, clock.instant());
+        } catch (RuntimeException e) {
+            log.warn("Upload job {} failed: {}", job.id(), e.getMessage());
+            job.fail(e.getMessage(), clock.instant());
+        } catch (Error e) {
+            // Leave the job in a terminal state before the error reaches the executor
+            log.error("Upload job {} failed", job.id(), e);
+            job.fail(e.toString(), clock.instant());
+            throw e;
+        } finally {
+            deleteQuietly(spooled);
+            retire(job);
+        }
+    }
+
+    /**
+     * Keeps the status of the last {@code history} finished jobs and forgets older ones.
+     */
+    private synchronized void retire(UploadJob job) {
+        finishedJobs.add(job.id());
+        while (finishedJobs.size() > history) {
+            jobs.remove(finishedJobs.remove());
+        }
+    }
+
+    private static Path spool(MultipartFile file) {
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("orders-job-", ".txt");
+            CompressionUtil.transferDecompressed(file, spooled);
+            return spooled;
+        } catch (IOException e) {
+            deleteQuietly(spooled);
+            throw new OrderProcessingException("Failed to receive file", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.challenge.verticallogistics.utils;
+
+import io.airlift.compress.MalformedInputException;
+import io.airlift.compress.zstd.ZstdInputStream;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Transparent decompression of uploaded order files. The format is detected from
+ * the leading magic bytes, not from file names or content types, and data is
+ * decompressed as it is read, so memory use does not depend on the file size.
+ */
+public class CompressionUtil {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 4;
+
+    public enum Compression {
+        NONE,
+        GZIP,
+        ZSTD
+    }
+
+    private CompressionUtil() {
+    }
+
+    public static Compression detect(byte[] header) {
+        if (header.length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B) {
+            return Compression.GZIP;
+        }
+        if (header.length >= 4 && (header[0] & 0xFF) == 0x28 && (header[1] & 0xFF) == 0xB5
+                && (header[2] & 0xFF) == 0x2F && (header[3] & 0xFF) == 0xFD) {
+            return Compression.ZSTD;
+        }
+        return Compression.NONE;
+    }
+
+    /**
+     * Returns a stream of the decompressed content of {@code input}, or of
+     * {@code input} itself when it is not compressed.
+     */
+    public static InputStream decompress(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        buffered.mark(MAGIC_LENGTH);
+        byte[] header = buffered.readNBytes(MAGIC_LENGTH);
+        buffered.reset();
+
+        return switch (detect(header)) {
+            case GZIP -> new GZIPInputStream(buffered, BUFFER_SIZE);
+            case ZSTD -> new ZstdStream(new ZstdInputStream(buffered));
+            case NONE -> buffered;
+        };
+    }
+
+    /**
+     * Writes the decompressed upload to {@code target}. Uncompressed uploads are
+     * transferred as they are, which lets the container move its temp file.
+     */
+    public static void transferDecompressed(MultipartFile file, Path target) throws IOException {
+        Compression compression;
+        try (InputStream input = file.getInputStream()) {
+            compression = detect(input.readNBytes(MAGIC_LENGTH));
+        }
+        if (compression == Compression.NONE) {
+            file.transferTo(target);
+            return;
+        }
+        try (InputStream input = decompress(file.getInputStream())) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reports corrupt zstd frames as {@link IOException}s, like the JDK gzip stream does.
+     */
+    private static final class ZstdStream extends FilterInputStream {
+
+        private ZstdStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (MalformedInputException e) {
+                throw new ZipException("Corrupt zstd stream: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (MalformedInputException e) {
+                throw new ZipException("Corrupt zstd stream: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,21 +1,101 @@
 package com.challenge.verticallogistics.utils;
 
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public class DateUtil {
-    private static final DateTimeFormatter LEGACY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
     private static final DateTimeFormatter API_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+
+    private static final EpochDayCache<LocalDate> DATES = new EpochDayCache<>(LocalDate::ofEpochDay);
+    private static final EpochDayCache<String> API_DATES =
+            new EpochDayCache<>(epochDay -> LocalDate.ofEpochDay(epochDay).format(API_DATE_FORMAT));
 
     private DateUtil() {
     }
 
     public static LocalDate parseFromLegacyFormat(String dateString) {
-        return LocalDate.parse(dateString, LEGACY_DATE_FORMAT);
+        return ofEpochDay(parseLegacyEpochDay(dateString));
+    }
+
+    public static LocalDate fromPackedLegacyDate(int yyyymmdd) {
+        return ofEpochDay(packedLegacyToEpochDay(yyyymmdd));
+    }
+
+    /**
+     * Decodes an 8-digit {@code yyyyMMdd} value to an epoch day without going through a formatter.
+     */
+    public static long parseLegacyEpochDay(CharSequence dateString) {
+        if (dateString.length() != 8) {
+            throw new DateTimeParseException("Invalid legacy date: '" + dateString + "'", dateString, 0);
+        }
+
+        int packed = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = dateString.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Invalid legacy date: '" + dateString + "'", dateString, i);
+            }
+            packed = packed * 10 + (c - '0');
+        }
+        return packedLegacyToEpochDay(packed);
+    }
+
+    /**
+     * Converts a {@code yyyyMMdd} value packed into an int to an epoch day. Like the
+     * {@code yyyyMMdd} formatter in its default SMART mode, a day past the end of the
+     * month (up to 31) is clamped to the last day, so {@code 20210230} is 2021-02-28;
+     * year 0, month 0 or 13 and day 0 or 32 are rejected.
+     */
+    public static long packedLegacyToEpochDay(int yyyymmdd) {
+        int year = yyyymmdd / 10000;
+        int month = yyyymmdd / 100 % 100;
+        int day = yyyymmdd % 100;
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new DateTimeException("Invalid legacy date: " + yyyymmdd);
+        }
+        day = Math.min(day, lengthOfMonth(year, month));
+
+        // Same arithmetic as LocalDate.toEpochDay, for a non-negative year
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total -= isLeapYear(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Returns a shared {@link LocalDate} for the epoch day.
+     */
+    public static LocalDate ofEpochDay(long epochDay) {
+        return DATES.get(epochDay);
     }
 
     public static String formatToApiFormat(LocalDate date) {
-        return date.format(API_DATE_FORMAT);
+        return formatEpochDay(date.toEpochDay());
+    }
+
+    /**
+     * Returns the shared {@code yyyy-MM-dd} string of the epoch day.
+     */
+    public static String formatEpochDay(long epochDay) {
+        return API_DATES.get(epochDay);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
     }
-}
\ No newline at end of file
+}
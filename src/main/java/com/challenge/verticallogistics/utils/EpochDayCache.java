@@ -0,0 +1,37 @@
+package com.challenge.verticallogistics.utils;
+
+import java.util.function.LongFunction;
+
+/**
+ * Lazily filled, array-indexed cache of immutable per-day values for the days from
+ * 1970-01-01 to 2099-12-31. Order files only hold a few thousand distinct dates, so
+ * each value is computed once; days outside the window are computed on every call.
+ * <p>
+ * Racing threads may compute the same value twice, which is harmless for immutable values.
+ */
+public final class EpochDayCache<T> {
+
+    private static final int DAYS = 47_482; // 1970-01-01 to 2100-01-01
+
+    private final Object[] values = new Object[DAYS];
+    private final LongFunction<T> factory;
+
+    public EpochDayCache(LongFunction<T> factory) {
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long epochDay) {
+        if (epochDay < 0 || epochDay >= DAYS) {
+            return factory.apply(epochDay);
+        }
+
+        int index = (int) epochDay;
+        T value = (T) values[index];
+        if (value == null) {
+            value = factory.apply(epochDay);
+            values[index] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.challenge.verticallogistics.utils;
+
+/**
+ * Fixed-point money with two decimal places, held as a {@code long} number of cents.
+ */
+public class MoneyUtil {
+
+    /** Enough room for {@code Long.MIN_VALUE} cents with sign and decimal point. */
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private MoneyUtil() {
+    }
+
+    /**
+     * Parses a legacy value such as {@code "1836.74"} or {@code "10"}, with at most two
+     * fraction digits, into cents.
+     *
+     * @throws NumberFormatException if the value is not a plain decimal number
+     */
+    public static long parseCents(String value) {
+        long cents = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9' && fractionDigits < 2) {
+                cents = Math.addExact(Math.multiplyExact(cents, 10), c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                throw new NumberFormatException("Invalid money value: '" + value + "'");
+            }
+        }
+
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid money value: '" + value + "'");
+        }
+        for (int i = Math.max(fractionDigits, 0); i < 2; i++) {
+            cents = Math.multiplyExact(cents, 10);
+        }
+        return cents;
+    }
+
+    /**
+     * Formats cents as a plain decimal with two fraction digits, e.g. {@code "1836.74"}.
+     */
+    public static String format(long cents) {
+        char[] buffer = new char[MAX_FORMATTED_LENGTH];
+        int length = format(cents, buffer);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Writes the formatted value to the start of {@code buffer}, which must hold at least
+     * {@link #MAX_FORMATTED_LENGTH} chars, and returns its length.
+     */
+    public static int format(long cents, char[] buffer) {
+        boolean negative = cents < 0;
+        // Work with the negated value so that Long.MIN_VALUE does not overflow
+        long remaining = negative ? cents : -cents;
+
+        int wholeDigits = 1;
+        for (long whole = remaining / 1000; whole != 0; whole /= 10) {
+            wholeDigits++;
+        }
+        int length = (negative ? 1 : 0) + wholeDigits + 3;
+
+        int position = length;
+        for (int i = 0; i < 2; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            buffer[0] = '-';
+        }
+        return length;
+    }
+}
@@ -0,0 +1,308 @@
+package com.challenge.verticallogistics.writer;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.utils.DateUtil;
+import com.challenge.verticallogistics.utils.EpochDayCache;
+import com.challenge.verticallogistics.utils.MoneyUtil;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes users straight to an output stream with the same field layout as
+ * {@link com.challenge.verticallogistics.dto.response.UserOrdersResponse}, without
+ * building the response DTO tree first.
+ * <p>
+ * The CBOR variant keeps the nesting but carries money as integer cents and dates
+ * as epoch days, so consumers decode numbers instead of parsing strings.
+ * <p>
+ * Orders carrying a JSON fragment from {@link #withFragments} are copied into the
+ * output as they are instead of being encoded again.
+ */
+@Component
+public class OrderJsonWriter {
+
+    private final JsonFactory jsonFactory;
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final EpochDayCache<SerializedString> dates =
+            new EpochDayCache<>(epochDay -> new SerializedString(DateUtil.formatEpochDay(epochDay)));
+
+    public OrderJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void write(Iterable<User> users, StreamFormat format, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(users, outputStream);
+            case CBOR -> writeCbor(users, outputStream);
+            default -> writeArray(users, outputStream);
+        }
+    }
+
+    public void writeArray(Iterable<User> users, OutputStream outputStream) throws IOException {
+        char[] money = new char[MoneyUtil.MAX_FORMATTED_LENGTH];
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (User user : users) {
+                writeUser(generator, user, money);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public void writeNdjson(Iterable<User> users, OutputStream outputStream) throws IOException {
+        char[] money = new char[MoneyUtil.MAX_FORMATTED_LENGTH];
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            for (User user : users) {
+                writeUser(generator, user, money);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    public void writeCbor(Iterable<User> users, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = cborFactory.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (User user : users) {
+                writeCompactUser(generator, user);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Returns copies of the users whose orders are built with their UTF-8 JSON. The
+     * given instances are left untouched; orders that already carry a fragment are
+     * reused as they are.
+     */
+    public List<User> withFragments(List<User> users) throws IOException {
+        char[] money = new char[MoneyUtil.MAX_FORMATTED_LENGTH];
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        List<User> result = new ArrayList<>(users.size());
+        try (JsonGenerator generator = createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            for (User user : users) {
+                List<Order> orders = new ArrayList<>(user.getOrders().size());
+                for (Order order : user.getOrders()) {
+                    if (order.getJsonFragment() != null) {
+                        orders.add(order);
+                        continue;
+                    }
+                    encodeOrder(generator, order, money);
+                    generator.flush();
+                    orders.add(Order.builder()
+                            .orderId(order.getOrderId())
+                            .totalCents(order.getTotalCents())
+                            .date(order.getDate())
+                            .products(order.getProducts())
+                            .jsonFragment(buffer.toByteArray())
+                            .build());
+                    buffer.reset();
+                }
+                result.add(User.builder()
+                        .userId(user.getUserId())
+                        .name(user.getName())
+                        .orders(orders)
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeUser(JsonGenerator generator, User user, char[] money) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("user_id", user.getUserId());
+        generator.writeStringField("name", user.getName());
+        generator.writeArrayFieldStart("orders");
+        for (Order order : user.getOrders()) {
+            writeOrder(generator, order, money);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeOrder(JsonGenerator generator, Order order, char[] money) throws IOException {
+        byte[] fragment = order.getJsonFragment();
+        if (fragment != null) {
+            generator.writeRawValue(new RawJson(fragment));
+        } else {
+            encodeOrder(generator, order, money);
+        }
+    }
+
+    private void encodeOrder(JsonGenerator generator, Order order, char[] money) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("order_id", order.getOrderId());
+        generator.writeFieldName("total");
+        writeMoney(generator, order.getTotalCents(), money);
+        generator.writeFieldName("date");
+        generator.writeString(dates.get(order.getDate().toEpochDay()));
+        generator.writeArrayFieldStart("products");
+        for (Product product : order.getProducts()) {
+            generator.writeStartObject();
+            generator.writeNumberField("product_id", product.getProductId());
+            generator.writeFieldName("value");
+            writeMoney(generator, product.getValueCents(), money);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeCompactUser(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("user_id", user.getUserId());
+        generator.writeStringField("name", user.getName());
+        generator.writeArrayFieldStart("orders");
+        for (Order order : user.getOrders()) {
+            generator.writeStartObject();
+            generator.writeNumberField("order_id", order.getOrderId());
+            generator.writeNumberField("total_cents", order.getTotalCents());
+            generator.writeNumberField("epoch_day", order.getDate().toEpochDay());
+            generator.writeArrayFieldStart("products");
+            for (Product product : order.getProducts()) {
+                generator.writeStartObject();
+                generator.writeNumberField("product_id", product.getProductId());
+                generator.writeNumberField("value_cents", product.getValueCents());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeMoney(JsonGenerator generator, long cents, char[] money) throws IOException {
+        generator.writeString(money, 0, MoneyUtil.format(cents, money));
+    }
+
+    /**
+     * Pre-encoded JSON handed to {@link JsonGenerator#writeRawValue(SerializableString)},
+     * which copies the bytes into its buffer. Only the unquoted forms are used there;
+     * the quoted ones decode the bytes first.
+     */
+    private static final class RawJson implements SerializableString {
+        private final byte[] utf8;
+
+        private RawJson(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return JsonStringEncoder.getInstance().quoteAsString(getValue());
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return JsonStringEncoder.getInstance().quoteAsUTF8(getValue());
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return append(asQuotedUTF8(), buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return append(asQuotedChars(), buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            return append(utf8, buffer, offset);
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return append(getValue().toCharArray(), buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            byte[] quoted = asQuotedUTF8();
+            out.write(quoted);
+            return quoted.length;
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            return put(asQuotedUTF8(), buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            return put(utf8, buffer);
+        }
+
+        private static int append(byte[] source, byte[] buffer, int offset) {
+            if (offset + source.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(source, 0, buffer, offset, source.length);
+            return source.length;
+        }
+
+        private static int append(char[] source, char[] buffer, int offset) {
+            if (offset + source.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(source, 0, buffer, offset, source.length);
+            return source.length;
+        }
+
+        private static int put(byte[] source, ByteBuffer buffer) {
+            if (source.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(source);
+            return source.length;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.challenge.verticallogistics.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Orders already selected by a query, written to a response later and possibly on
+ * another thread.
+ */
+@FunctionalInterface
+public interface OrderStream {
+    void writeTo(OutputStream outputStream) throws IOException;
+}
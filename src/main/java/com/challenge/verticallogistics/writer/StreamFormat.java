@@ -0,0 +1,7 @@
+package com.challenge.verticallogistics.writer;
+
+public enum StreamFormat {
+    JSON,
+    NDJSON,
+    CBOR
+}
@@ -0,0 +1,29 @@
+-- Natural keys only: no sequences or identity columns, so bulk inserts never wait on key generation.
+-- Positions keep the upload order of users, orders and products.
+
+CREATE TABLE IF NOT EXISTS order_users (
+    user_id  BIGINT      NOT NULL PRIMARY KEY,
+    name     VARCHAR(45) NOT NULL,
+    position BIGINT      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    user_id     BIGINT  NOT NULL,
+    order_id    BIGINT  NOT NULL,
+    position    INTEGER NOT NULL,
+    epoch_day   INTEGER NOT NULL,
+    total_cents BIGINT  NOT NULL,
+    PRIMARY KEY (user_id, order_id)
+);
+
+CREATE INDEX IF NOT EXISTS orders_order_id ON orders (order_id);
+CREATE INDEX IF NOT EXISTS orders_epoch_day ON orders (epoch_day, user_id, order_id);
+
+CREATE TABLE IF NOT EXISTS order_products (
+    user_id     BIGINT  NOT NULL,
+    order_id    BIGINT  NOT NULL,
+    position    INTEGER NOT NULL,
+    product_id  BIGINT  NOT NULL,
+    value_cents BIGINT  NOT NULL,
+    PRIMARY KEY (user_id, order_id, position)
+);
@@ -0,0 +1,12 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.repository.ColumnarOrderRepository;
+import com.challenge.verticallogistics.repository.OrderRepository;
+
+class ColumnarOrderRepositoryTest extends InMemoryOrderRepositoryTest {
+
+    @Override
+    protected OrderRepository createRepository() {
+        return new ColumnarOrderRepository();
+    }
+}
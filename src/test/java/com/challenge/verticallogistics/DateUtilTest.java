@@ -0,0 +1,57 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.utils.DateUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DateUtilTest {
+
+    private static final DateTimeFormatter LEGACY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Test
+    @DisplayName("Should decode and format every day like java.time does")
+    void testLegacyDates_MatchJavaTime() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 2, 1)); date = date.plusDays(1)) {
+            String legacy = date.format(LEGACY_DATE_FORMAT);
+
+            assertEquals(date.toEpochDay(), DateUtil.parseLegacyEpochDay(legacy));
+            assertEquals(date, DateUtil.parseFromLegacyFormat(legacy));
+            assertEquals(date, DateUtil.fromPackedLegacyDate(Integer.parseInt(legacy)));
+            assertEquals(date.toString(), DateUtil.formatToApiFormat(date));
+        }
+    }
+
+    @Test
+    @DisplayName("Should share decoded dates and formatted strings")
+    void testLegacyDates_AreCached() {
+        assertSame(DateUtil.parseFromLegacyFormat("20210308"), DateUtil.fromPackedLegacyDate(20210308));
+        assertSame(DateUtil.formatEpochDay(18694), DateUtil.formatToApiFormat(LocalDate.of(2021, 3, 8)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"20210230, 2021-02-28", "20230229, 2023-02-28", "20240231, 2024-02-29", "20210431, 2021-04-30"})
+    @DisplayName("Should clamp a day past the end of the month like the SMART formatter does")
+    void testLegacyDates_ClampDayToEndOfMonth(String value, LocalDate expected) {
+        assertEquals(LocalDate.parse(value, LEGACY_DATE_FORMAT), expected);
+        assertEquals(expected.toEpochDay(), DateUtil.parseLegacyEpochDay(value));
+        assertEquals(expected, DateUtil.fromPackedLegacyDate(Integer.parseInt(value)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"20210232", "00000101", "20211301", "20210000", "2021030", "2021-3-8", "2021030X"})
+    @DisplayName("Should reject out-of-range fields and malformed dates")
+    void testParseLegacyEpochDay_RejectsInvalidDates(String value) {
+        assertThrows(DateTimeException.class, () -> DateUtil.parseLegacyEpochDay(value));
+    }
+}
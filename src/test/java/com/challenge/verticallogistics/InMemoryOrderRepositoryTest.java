@@ -0,0 +1,307 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.PeriodRevenue;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.ProductSales;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.model.UserSpend;
+import com.challenge.verticallogistics.repository.InMemoryOrderRepository;
+import com.challenge.verticallogistics.repository.OrderRepository;
+import com.challenge.verticallogistics.repository.OrderStatistics;
+import com.challenge.verticallogistics.utils.MoneyUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryOrderRepositoryTest {
+
+    private OrderRepository repository;
+
+    protected OrderRepository createRepository() {
+        return new InMemoryOrderRepository();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = createRepository();
+        repository.saveAll(List.of(
+                user(1L, "Zarelli",
+                        order(123L, LocalDate.of(2021, 12, 1), "512.24"),
+                        order(124L, LocalDate.of(2021, 12, 5), "10.00")),
+                user(2L, "Medeiros",
+                        order(12345L, LocalDate.of(2020, 12, 1), "256.24"))));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested order of the owning user")
+    void testFindByOrderId_ReturnsOnlyMatchingOrder() {
+        List<User> users = repository.findByOrderId(124L);
+
+        assertEquals(1, users.size());
+        assertEquals(1L, users.get(0).getUserId());
+        assertEquals(1, users.get(0).getOrders().size());
+        assertEquals(124L, users.get(0).getOrders().get(0).getOrderId());
+        assertTrue(repository.findByOrderId(999L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should resolve several order ids at once, grouped by owning user")
+    void testFindByOrderIds_GroupsMatchingOrdersByUser() {
+        List<User> users = repository.findByOrderIds(List.of(12345L, 124L, 999L, 124L, 123L));
+
+        Map<Long, Set<Long>> orderIdsByUser = new HashMap<>();
+        users.forEach(user -> user.getOrders().forEach(order -> orderIdsByUser
+                .computeIfAbsent(user.getUserId(), id -> new HashSet<>())
+                .add(order.getOrderId())));
+        assertEquals(2, users.size());
+        assertEquals(Map.of(1L, Set.of(123L, 124L), 2L, Set.of(12345L)), orderIdsByUser);
+        assertTrue(repository.findByOrderIds(List.of(999L, 1000L)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return orders within an inclusive date range")
+    void testFindByDateRange_ReturnsOrdersInRange() {
+        List<User> users = repository.findByDateRange(LocalDate.of(2021, 12, 1), LocalDate.of(2021, 12, 1));
+
+        assertEquals(1, users.size());
+        assertEquals(1, users.get(0).getOrders().size());
+        assertEquals(123L, users.get(0).getOrders().get(0).getOrderId());
+
+        assertEquals(2, repository.findByDateRange(null, LocalDate.of(2021, 12, 1)).size());
+
+        List<User> fromDecemberSecond = repository.findByDateRange(LocalDate.of(2021, 12, 2), null);
+        assertEquals(1, fromDecemberSecond.size());
+        assertEquals(124L, fromDecemberSecond.get(0).getOrders().get(0).getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should page through all orders by user and order id with a cursor")
+    void testFindPage_WalksOrdersWithCursor() {
+        OrderPage first = repository.findPage(null, 2);
+        assertEquals(1, first.getUsers().size());
+        assertEquals(List.of(123L, 124L), orderIds(first));
+        assertNotNull(first.getNext());
+
+        OrderPage second = repository.findPage(first.getNext(), 2);
+        assertEquals(2L, second.getUsers().get(0).getUserId());
+        assertEquals(List.of(12345L), orderIds(second));
+        assertNull(second.getNext());
+    }
+
+    @Test
+    @DisplayName("Should page through a date range in date order with a cursor")
+    void testFindPageByDateRange_WalksRangeWithCursor() {
+        OrderPage first = repository.findPageByDateRange(LocalDate.of(2020, 1, 1), null, null, 2);
+        assertEquals(List.of(12345L, 123L), orderIds(first));
+
+        OrderPage second = repository.findPageByDateRange(LocalDate.of(2020, 1, 1), null, first.getNext(), 2);
+        assertEquals(List.of(124L), orderIds(second));
+        assertNull(second.getNext());
+    }
+
+    @Test
+    @DisplayName("Should drop indexed orders of a user that is saved again")
+    void testSaveAll_ReplacesIndexedOrdersOfExistingUser() {
+        repository.saveAll(List.of(user(1L, "Zarelli", order(200L, LocalDate.of(2022, 1, 1), "1.00"))));
+
+        assertTrue(repository.findByOrderId(123L).isEmpty());
+        assertEquals(1, repository.findByOrderId(200L).size());
+        assertTrue(repository.findByDateRange(LocalDate.of(2021, 12, 1), LocalDate.of(2021, 12, 31)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should merge appended orders and products into stored users and indexes")
+    void testMergeAll_MergesIntoExistingUsersAndOrders() {
+        repository.mergeAll(List.of(
+                user(1L, "Zarelli",
+                        order(124L, LocalDate.of(2022, 2, 2), "10.00"),
+                        order(125L, LocalDate.of(2022, 1, 1), "5.00")),
+                user(3L, "Oliveira", order(300L, LocalDate.of(2023, 5, 1), "42.00"))));
+
+        List<User> users = repository.findAll();
+        assertEquals(List.of(1L, 2L, 3L), users.stream().map(User::getUserId).toList());
+        assertEquals(3, users.get(0).getOrders().size());
+
+        Order merged = repository.findByOrderId(124L).get(0).getOrders().get(0);
+        assertEquals(2000L, merged.getTotalCents());
+        assertEquals(LocalDate.of(2021, 12, 5), merged.getDate());
+        assertEquals(2, merged.getProducts().size());
+
+        assertEquals(1, repository.findByOrderId(123L).size());
+        assertEquals(1, repository.findByOrderId(300L).size());
+        assertEquals(List.of(125L, 300L), orderIds(repository.findPageByDateRange(LocalDate.of(2022, 1, 1), null, null, 10)));
+        assertEquals(List.of(123L, 124L, 125L, 12345L, 300L), orderIds(repository.findPage(null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should swap the whole dataset when replacing all users")
+    void testReplaceAll_PublishesNewDataset() {
+        List<User> before = repository.findAll();
+
+        repository.replaceAll(List.of(user(3L, "Oliveira", order(300L, LocalDate.of(2023, 5, 1), "42.00"))));
+
+        assertEquals(2, before.size());
+        assertEquals(1, repository.findAll().size());
+        assertEquals(3L, repository.findAll().get(0).getUserId());
+        assertTrue(repository.findByOrderId(123L).isEmpty());
+        assertEquals(1, repository.findByOrderId(300L).size());
+    }
+
+    @Test
+    @DisplayName("Should aggregate revenue and rankings from the stored rollups")
+    void testStatistics_AggregatesRevenueAndRankings() {
+        OrderStatistics statistics = repository.statistics();
+
+        List<PeriodRevenue> daily = statistics.revenue(null, null, RevenueGranularity.DAY);
+        assertEquals(List.of(LocalDate.of(2020, 12, 1), LocalDate.of(2021, 12, 1), LocalDate.of(2021, 12, 5)),
+                daily.stream().map(PeriodRevenue::getStart).toList());
+        assertEquals(51224L, daily.get(1).getTotalCents());
+
+        List<PeriodRevenue> monthly = statistics.revenue(LocalDate.of(2021, 1, 1), null, RevenueGranularity.MONTH);
+        assertEquals(1, monthly.size());
+        assertEquals(LocalDate.of(2021, 12, 1), monthly.get(0).getStart());
+        assertEquals(52224L, monthly.get(0).getTotalCents());
+        assertEquals(2, monthly.get(0).getOrders());
+
+        UserSpend top = statistics.topUsers(null, null, 1).get(0);
+        assertEquals(1L, top.getUserId());
+        assertEquals("Zarelli", top.getName());
+        assertEquals(52224L, top.getTotalCents());
+        assertEquals(2L, statistics.topUsers(null, LocalDate.of(2021, 1, 1), 10).get(0).getUserId());
+        assertEquals(1000L, statistics.topUsers(LocalDate.of(2021, 12, 2), null, 10).get(0).getTotalCents());
+
+        ProductSales product = statistics.topProducts(null, null, 10, ProductRanking.COUNT).get(0);
+        assertEquals(1L, product.getProductId());
+        assertEquals(77848L, product.getRevenueCents());
+        assertEquals(3, product.getCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the statistics in line with the stored orders after merging")
+    void testStatistics_FollowMergedOrders() {
+        repository.mergeAll(List.of(
+                user(1L, "Zarelli",
+                        order(124L, LocalDate.of(2022, 2, 2), "10.00"),
+                        order(125L, LocalDate.of(2022, 1, 1), "5.00")),
+                user(3L, "Oliveira", order(300L, LocalDate.of(2020, 12, 1), "900.00"))));
+
+        OrderStatistics statistics = repository.statistics();
+        OrderStatistics rebuilt = OrderStatistics.of(repository.findAll());
+
+        assertEquals(rebuilt.revenue(null, null, RevenueGranularity.DAY),
+                statistics.revenue(null, null, RevenueGranularity.DAY));
+        assertEquals(rebuilt.topUsers(null, null, 10), statistics.topUsers(null, null, 10));
+        assertEquals(rebuilt.topUsers(LocalDate.of(2021, 12, 5), null, 10),
+                statistics.topUsers(LocalDate.of(2021, 12, 5), null, 10));
+        assertEquals(rebuilt.topProducts(null, null, 10, ProductRanking.COUNT),
+                statistics.topProducts(null, null, 10, ProductRanking.COUNT));
+        assertEquals(rebuilt.topProducts(null, null, 10, ProductRanking.REVENUE),
+                statistics.topProducts(null, null, 10, ProductRanking.REVENUE));
+
+        assertEquals(3L, statistics.topUsers(null, null, 1).get(0).getUserId());
+        assertEquals(2000L, statistics.topUsers(LocalDate.of(2021, 12, 5), LocalDate.of(2021, 12, 5), 1)
+                .get(0).getTotalCents());
+    }
+
+    @Test
+    @DisplayName("Should move to a new even version after every write")
+    void testVersion_EvenAfterWrites() {
+        long before = repository.version();
+
+        repository.mergeAll(List.of(user(3L, "Oliveira", order(300L, LocalDate.of(2023, 5, 1), "42.00"))));
+        long afterMerge = repository.version();
+        repository.clear();
+
+        assertEquals(0, before % 2);
+        assertEquals(0, afterMerge % 2);
+        assertTrue(afterMerge > before);
+        assertEquals(0, repository.version() % 2);
+        assertTrue(repository.version() > afterMerge);
+    }
+
+    @Test
+    @DisplayName("Should clear users and indexes")
+    void testClear_RemovesEverything() {
+        repository.clear();
+
+        assertTrue(repository.findAll().isEmpty());
+        assertTrue(repository.findByOrderId(123L).isEmpty());
+        assertTrue(repository.findByDateRange(null, null).isEmpty());
+    }
+
+    private static List<Long> orderIds(OrderPage page) {
+        return page.getUsers().stream()
+                .flatMap(user -> user.getOrders().stream())
+                .map(Order::getOrderId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should index many orders stored out of id and date order")
+    void testFindByOrderIdAndDateRange_ManyUnsortedOrders() {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (long userId = 1; userId <= 20; userId++) {
+            User user = user(userId, "User " + userId);
+            for (int i = 0; i < 10; i++) {
+                Order order = order(random.nextLong(1, 1L << 40),
+                        LocalDate.of(2021, 1, 1).plusDays(random.nextInt(365)), "1.00");
+                user.getOrders().add(order);
+                orders.add(order);
+            }
+            users.add(user);
+        }
+        repository.replaceAll(users);
+
+        for (Order order : orders) {
+            List<User> found = repository.findByOrderId(order.getOrderId());
+            assertEquals(1, found.size());
+            assertEquals(order, found.get(0).getOrders().get(0));
+        }
+        LocalDate start = LocalDate.of(2021, 4, 1);
+        LocalDate end = LocalDate.of(2021, 6, 30);
+        List<LocalDate> dates = repository.findByDateRange(start, end).stream()
+                .flatMap(user -> user.getOrders().stream())
+                .map(Order::getDate)
+                .toList();
+        assertEquals(orders.stream().filter(order -> !order.getDate().isBefore(start) && !order.getDate().isAfter(end)).count(),
+                dates.size());
+    }
+
+    private static User user(Long userId, String name, Order... orders) {
+        return User.builder()
+                .userId(userId)
+                .name(name)
+                .orders(new ArrayList<>(List.of(orders)))
+                .build();
+    }
+
+    private static Order order(Long orderId, LocalDate date, String value) {
+        long total = MoneyUtil.parseCents(value);
+        return Order.builder()
+                .orderId(orderId)
+                .date(date)
+                .totalCents(total)
+                .products(List.of(Product.builder().productId(1L).valueCents(total).build()))
+                .build();
+    }
+}
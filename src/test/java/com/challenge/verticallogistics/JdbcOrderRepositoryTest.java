@@ -0,0 +1,86 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.config.RepositoryProperties;
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.repository.JdbcOrderRepository;
+import com.challenge.verticallogistics.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JdbcOrderRepositoryTest extends InMemoryOrderRepositoryTest {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    @AfterEach
+    void shutDown() {
+        database.shutdown();
+    }
+
+    @Override
+    protected OrderRepository createRepository() {
+        RepositoryProperties properties = new RepositoryProperties();
+        properties.setBatchSize(64);
+        return new JdbcOrderRepository(new JdbcTemplate(database), new DataSourceTransactionManager(database), properties);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a bulk upload through batched multi-row inserts")
+    void testReplaceAll_BulkInsertRoundTrips() {
+        List<User> users = LongStream.range(0, 300)
+                .mapToObj(userId -> User.builder()
+                        .userId(userId)
+                        .name("User " + userId)
+                        .orders(LongStream.range(0, 1 + userId % 3)
+                                .mapToObj(order -> Order.builder()
+                                        .orderId(userId * 10 + order)
+                                        .date(LocalDate.of(2021, 1, 1).plusDays(userId % 40))
+                                        .totalCents(300L)
+                                        .products(new ArrayList<>(List.of(
+                                                Product.builder().productId(order + 1).valueCents(100L).build(),
+                                                Product.builder().productId(order + 2).valueCents(200L).build())))
+                                        .build())
+                                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll))
+                        .build())
+                .toList();
+
+        OrderRepository repository = createRepository();
+        repository.replaceAll(users);
+
+        assertEquals(users, repository.findAll());
+        assertEquals(users, createRepository().findAll());
+        assertEquals(300, repository.userCount());
+
+        int pagedOrders = 0;
+        OrderPage page = repository.findPageByDateRange(LocalDate.of(2021, 1, 10), null, null, 50);
+        while (true) {
+            pagedOrders += page.getUsers().stream().mapToInt(user -> user.getOrders().size()).sum();
+            if (page.getNext() == null) {
+                break;
+            }
+            page = repository.findPageByDateRange(LocalDate.of(2021, 1, 10), null, page.getNext(), 50);
+        }
+        assertEquals(repository.findByDateRange(LocalDate.of(2021, 1, 10), null).stream()
+                .mapToInt(user -> user.getOrders().size()).sum(), pagedOrders);
+        assertNull(page.getNext());
+    }
+}
@@ -0,0 +1,62 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.utils.LongObjectHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongObjectHashMapTest {
+
+    @Test
+    @DisplayName("Should behave like a HashMap under random puts and removals")
+    void testRandomOperations_MatchHashMap() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(0);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep a copy independent of the original")
+    void testCopy_IsIndependent() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(Long.MIN_VALUE, "min");
+        map.put(0L, "zero");
+
+        LongObjectHashMap<String> copy = map.copy();
+        copy.remove(0L);
+        copy.computeIfAbsent(Long.MAX_VALUE, key -> "max");
+
+        assertEquals("zero", map.get(0L));
+        assertNull(map.get(Long.MAX_VALUE));
+        assertEquals("min", copy.get(Long.MIN_VALUE));
+        assertEquals(2, copy.size());
+    }
+
+    @Test
+    @DisplayName("Should reject null values")
+    void testPut_RejectsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectHashMap<String>().put(1L, null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.config.RepositoryProperties;
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.repository.MappedFileOrderRepository;
+import com.challenge.verticallogistics.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedFileOrderRepositoryTest extends InMemoryOrderRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected OrderRepository createRepository() {
+        return new MappedFileOrderRepository(properties());
+    }
+
+    @Test
+    @DisplayName("Should serve the last published snapshot after a restart")
+    void testRestart_MapsPersistedSnapshot() {
+        User user = User.builder()
+                .userId(7L)
+                .name("Palmer Prosacco")
+                .orders(List.of(Order.builder()
+                        .orderId(753L)
+                        .date(LocalDate.of(2021, 3, 8))
+                        .totalCents(193674L)
+                        .products(List.of(
+                                Product.builder().productId(3L).valueCents(183674L).build(),
+                                Product.builder().productId(4L).valueCents(10000L).build()))
+                        .build()))
+                .build();
+        new MappedFileOrderRepository(properties()).replaceAll(List.of(user));
+
+        OrderRepository restarted = new MappedFileOrderRepository(properties());
+
+        assertEquals(List.of(user), restarted.findAll());
+        assertEquals(List.of(user), restarted.findByOrderId(753L));
+    }
+
+    private RepositoryProperties properties() {
+        RepositoryProperties properties = new RepositoryProperties();
+        properties.setMappedPath(tempDir.resolve("orders.snapshot"));
+        return properties;
+    }
+}
@@ -0,0 +1,38 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.utils.MoneyUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyUtilTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 5L, 50L, 100L, 183674L, -5L, -183674L, 99999999999L, Long.MAX_VALUE, Long.MIN_VALUE})
+    @DisplayName("Should format cents exactly like a two-decimal BigDecimal")
+    void testFormat_MatchesBigDecimal(long cents) {
+        assertEquals(BigDecimal.valueOf(cents, 2).toPlainString(), MoneyUtil.format(cents));
+    }
+
+    @Test
+    @DisplayName("Should parse legacy values with up to two fraction digits")
+    void testParseCents_ParsesLegacyValues() {
+        assertEquals(183674L, MoneyUtil.parseCents("1836.74"));
+        assertEquals(183670L, MoneyUtil.parseCents("1836.7"));
+        assertEquals(1000L, MoneyUtil.parseCents("10"));
+        assertEquals(50L, MoneyUtil.parseCents(".5"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", ".", "1.234", "12a.00", "1.2.3", "-1.00"})
+    @DisplayName("Should reject values that are not plain two-decimal amounts")
+    void testParseCents_RejectsInvalidValues(String value) {
+        assertThrows(NumberFormatException.class, () -> MoneyUtil.parseCents(value));
+    }
+}
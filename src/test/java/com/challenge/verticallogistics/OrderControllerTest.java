@@ -2,10 +2,17 @@ package com.challenge.verticallogistics;
 
 import com.challenge.verticallogistics.controller.OrderController;
 import com.challenge.verticallogistics.dto.request.DateRangeRequest;
+import com.challenge.verticallogistics.dto.response.OrderLookupResponse;
 import com.challenge.verticallogistics.dto.response.OrderResponse;
 import com.challenge.verticallogistics.dto.response.ProductResponse;
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersPageResponse;
 import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.exception.GlobalExceptionHandler;
 import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.UploadJobService;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.writer.StreamFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,12 +20,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
@@ -27,13 +39,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,11 +58,15 @@ class OrderControllerTest {
     @Mock
     private OrderProcessingService orderProcessingService;
 
+    @Mock
+    private UploadJobService uploadJobService;
+
     @InjectMocks
     private OrderController orderController;
 
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
+    private WebRequest webRequest;
 
     private List<UserOrdersResponse> mockUserOrdersResponses;
 
@@ -56,6 +75,7 @@ class OrderControllerTest {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(orderController).build();
         objectMapper = new ObjectMapper();
+        webRequest = new ServletWebRequest(new MockHttpServletRequest());
 
         mockUserOrdersResponses = createMockResponseData();
     }
@@ -116,15 +136,15 @@ class OrderControllerTest {
                 fileContent.getBytes()
         );
 
-        when(orderProcessingService.processOrderFile(any(MultipartFile.class)))
+        when(orderProcessingService.processOrderFile(any(MultipartFile.class), eq(UploadMode.REPLACE)))
                 .thenReturn(mockUserOrdersResponses);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.uploadFile(file);
+        ResponseEntity<List<UserOrdersResponse>> response = orderController.uploadFile(file, UploadMode.REPLACE);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockUserOrdersResponses, response.getBody());
-        verify(orderProcessingService, times(1)).processOrderFile(any(MultipartFile.class));
+        verify(orderProcessingService, times(1)).processOrderFile(any(MultipartFile.class), eq(UploadMode.REPLACE));
     }
 
     @Test
@@ -132,12 +152,12 @@ class OrderControllerTest {
     void testGetAllOrders_ReturnsAllOrders() {
         when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.getAllOrders();
+        ResponseEntity<?> response = orderController.getAllOrders(webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(mockUserOrdersResponses, response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(mockUserOrdersResponses, users(response));
+        assertEquals(2, users(response).size());
         verify(orderProcessingService, times(1)).getAllOrders();
     }
 
@@ -150,13 +170,13 @@ class OrderControllerTest {
         List<UserOrdersResponse> filteredOrders = Collections.singletonList(mockUserOrdersResponses.get(0));
         when(orderProcessingService.getOrdersByOrderId(123L)).thenReturn(filteredOrders);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.filterOrders(request);
+        ResponseEntity<?> response = orderController.filterOrders(request, webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(filteredOrders, response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(123L, response.getBody().get(0).getOrders().get(0).getOrder_id());
+        assertEquals(filteredOrders, users(response));
+        assertEquals(1, users(response).size());
+        assertEquals(123L, users(response).get(0).getOrders().get(0).getOrder_id());
         verify(orderProcessingService, times(1)).getOrdersByOrderId(123L);
         verify(orderProcessingService, never()).getOrdersByDateRange(any(), any());
         verify(orderProcessingService, never()).getAllOrders();
@@ -172,13 +192,13 @@ class OrderControllerTest {
         List<UserOrdersResponse> filteredOrders = Collections.singletonList(mockUserOrdersResponses.get(0));
         when(orderProcessingService.getOrdersByOrderId(123L)).thenReturn(filteredOrders);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.filterOrders(request);
+        ResponseEntity<?> response = orderController.filterOrders(request, webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(filteredOrders, response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(123L, response.getBody().get(0).getOrders().get(0).getOrder_id());
+        assertEquals(filteredOrders, users(response));
+        assertEquals(1, users(response).size());
+        assertEquals(123L, users(response).get(0).getOrders().get(0).getOrder_id());
 
         verify(orderProcessingService, times(1)).getOrdersByOrderId(123L);
         verify(orderProcessingService, never()).getOrdersByDateRange(any(), any());
@@ -196,13 +216,13 @@ class OrderControllerTest {
         when(orderProcessingService.getOrdersByDateRange(startDate, null))
                 .thenReturn(filteredOrders);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.filterOrders(request);
+        ResponseEntity<?> response = orderController.filterOrders(request, webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(filteredOrders, response.getBody());
-        assertEquals(1, response.getBody() != null ? response.getBody().size() : 0);
-        assertEquals("2021-12-01", response.getBody().get(0).getOrders().get(0).getDate().toString());
+        assertEquals(filteredOrders, users(response));
+        assertEquals(1, users(response) != null ? users(response).size() : 0);
+        assertEquals("2021-12-01", users(response).get(0).getOrders().get(0).getDate().toString());
         verify(orderProcessingService, never()).getOrdersByOrderId(anyLong());
         verify(orderProcessingService, times(1)).getOrdersByDateRange(startDate, null);
         verify(orderProcessingService, never()).getAllOrders();
@@ -219,13 +239,13 @@ class OrderControllerTest {
         when(orderProcessingService.getOrdersByDateRange(null, endDate))
                 .thenReturn(filteredOrders);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.filterOrders(request);
+        ResponseEntity<?> response = orderController.filterOrders(request, webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(filteredOrders, response.getBody());
-        assertEquals(1, response.getBody() != null ? response.getBody().size() : 0);
-        assertEquals("2020-12-01", response.getBody().get(0).getOrders().get(0).getDate().toString());
+        assertEquals(filteredOrders, users(response));
+        assertEquals(1, users(response) != null ? users(response).size() : 0);
+        assertEquals("2020-12-01", users(response).get(0).getOrders().get(0).getDate().toString());
         verify(orderProcessingService, never()).getOrdersByOrderId(anyLong());
         verify(orderProcessingService, times(1)).getOrdersByDateRange(null, endDate);
         verify(orderProcessingService, never()).getAllOrders();
@@ -238,12 +258,12 @@ class OrderControllerTest {
 
         when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
 
-        ResponseEntity<List<UserOrdersResponse>> response = orderController.filterOrders(request);
+        ResponseEntity<?> response = orderController.filterOrders(request, webRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(mockUserOrdersResponses, response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(mockUserOrdersResponses, users(response));
+        assertEquals(2, users(response).size());
         verify(orderProcessingService, never()).getOrdersByOrderId(anyLong());
         verify(orderProcessingService, never()).getOrdersByDateRange(any(), any());
         verify(orderProcessingService, times(1)).getAllOrders();
@@ -262,7 +282,7 @@ class OrderControllerTest {
                 fileContent.getBytes()
         );
 
-        when(orderProcessingService.processOrderFile(any(MultipartFile.class)))
+        when(orderProcessingService.processOrderFile(any(MultipartFile.class), eq(UploadMode.REPLACE)))
                 .thenReturn(mockUserOrdersResponses);
 
         mockMvc.perform(multipart("/api/orders/upload")
@@ -275,6 +295,61 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$[1].name", is("Medeiros")));
     }
 
+    @Test
+    @DisplayName("Should pass the append mode of an upload to the service")
+    void testMvcIntegration_UploadFileInAppendMode() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "orders.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                "".getBytes()
+        );
+
+        when(orderProcessingService.processOrderFile(any(MultipartFile.class), eq(UploadMode.APPEND)))
+                .thenReturn(mockUserOrdersResponses);
+
+        mockMvc.perform(multipart("/api/orders/upload")
+                        .file(file)
+                        .param("mode", "APPEND"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(orderProcessingService, times(1)).processOrderFile(any(MultipartFile.class), eq(UploadMode.APPEND));
+    }
+
+    @Test
+    @DisplayName("Should accept an asynchronous upload and point to its job")
+    void testMvcIntegration_UploadFileAsync() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "orders.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                "".getBytes()
+        );
+        UploadJobResponse job = UploadJobResponse.builder()
+                .job_id("42")
+                .status("QUEUED")
+                .mode("REPLACE")
+                .build();
+
+        when(uploadJobService.submit(any(MultipartFile.class), eq(UploadMode.REPLACE))).thenReturn(job);
+        when(uploadJobService.findJob("42")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(multipart("/api/orders/upload/async")
+                        .file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/orders/upload/jobs/42"))
+                .andExpect(jsonPath("$.job_id", is("42")))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+
+        mockMvc.perform(get("/api/orders/upload/jobs/42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode", is("REPLACE")));
+
+        mockMvc.perform(get("/api/orders/upload/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Should successfully get all orders via MockMvc")
     void testMvcIntegration_GetAllOrders() throws Exception {
@@ -328,4 +403,209 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$[0].orders[0].date", is("2021-12-01")));
     }
 
-    }
\ No newline at end of file
+    @Test
+    @DisplayName("Should stream filtered orders as NDJSON via MockMvc")
+    void testMvcIntegration_StreamOrdersAsNdjson() throws Exception {
+        when(orderProcessingService.streamOrders(any(DateRangeRequest.class), eq(StreamFormat.NDJSON)))
+                .thenReturn(outputStream -> outputStream.write("{\"user_id\":1}\n".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/stream")
+                        .param("orderId", "123")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"user_id\":1}\n"));
+    }
+
+    @Test
+    @DisplayName("Should stream orders as CBOR when the client accepts application/cbor")
+    void testMvcIntegration_GetOrdersAsCbor() throws Exception {
+        byte[] body = {(byte) 0x9f, (byte) 0xff};
+        when(orderProcessingService.streamOrders(any(DateRangeRequest.class), eq(StreamFormat.CBOR)))
+                .thenReturn(outputStream -> outputStream.write(body));
+
+        MvcResult result = mockMvc.perform(get("/api/orders")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(content().bytes(body));
+        verify(orderProcessingService, never()).getAllOrders();
+    }
+
+    @Test
+    @DisplayName("Should keep answering JSON when the client accepts any media type")
+    void testMvcIntegration_GetOrdersDefaultsToJson() throws Exception {
+        when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
+
+        mockMvc.perform(get("/api/orders").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Should return a page of orders with the next cursor via MockMvc")
+    void testMvcIntegration_GetOrdersPage() throws Exception {
+        UserOrdersPageResponse page = UserOrdersPageResponse.builder()
+                .users(Collections.singletonList(mockUserOrdersResponses.get(0)))
+                .next_cursor("18962:1:123")
+                .build();
+        when(orderProcessingService.getOrdersPage(null, null, "18961:1:100", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/orders/page")
+                        .param("cursor", "18961:1:100")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].user_id", is(1)))
+                .andExpect(jsonPath("$.next_cursor", is("18962:1:123")));
+    }
+
+    @Test
+    @DisplayName("Should reject a page limit outside the allowed range")
+    void testMvcIntegration_GetOrdersPage_RejectsInvalidLimit() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/api/orders/page")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        verify(orderProcessingService, never()).getOrdersPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should tag order responses with an ETag of the current dataset")
+    void testMvcIntegration_GetAllOrders_SetsETag() throws Exception {
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-7");
+        when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2c3d4-7-json\""))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without querying when the client holds the current dataset")
+    void testMvcIntegration_GetAllOrders_NotModified() throws Exception {
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-7");
+
+        mockMvc.perform(get("/api/orders").header(HttpHeaders.IF_NONE_MATCH, "\"a1b2c3d4-7-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/orders/stream").accept(MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"a1b2c3d4-7-ndjson\""))
+                .andExpect(status().isNotModified());
+
+        verify(orderProcessingService, never()).getAllOrders();
+        verify(orderProcessingService, never()).streamOrders(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer again once the dataset changes")
+    void testMvcIntegration_GetAllOrders_StaleETag() throws Exception {
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-8");
+        when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
+
+        mockMvc.perform(get("/api/orders").header(HttpHeaders.IF_NONE_MATCH, "\"a1b2c3d4-7-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2c3d4-8-json\""));
+        verify(orderProcessingService, times(1)).getAllOrders();
+    }
+
+    @Test
+    @DisplayName("Should leave the ETag out when the dataset changes while the query runs")
+    void testMvcIntegration_GetAllOrders_ChangedDuringQuery() throws Exception {
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-7", "a1b2c3d4-8");
+        when(orderProcessingService.getAllOrders()).thenReturn(mockUserOrdersResponses);
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Should query streamed orders before the response body is written")
+    void testMvcIntegration_StreamOrders_QueriesBeforeWriting() throws Exception {
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-7");
+        when(orderProcessingService.streamOrders(any(DateRangeRequest.class), eq(StreamFormat.NDJSON)))
+                .thenReturn(outputStream -> outputStream.write("{\"user_id\":1}\n".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        verify(orderProcessingService).streamOrders(any(DateRangeRequest.class), eq(StreamFormat.NDJSON));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2c3d4-7-ndjson\""))
+                .andExpect(content().string("{\"user_id\":1}\n"));
+    }
+
+    @Test
+    @DisplayName("Should write all and filtered orders from stored JSON fragments when the store keeps them")
+    void testMvcIntegration_GetOrders_WritesJsonFragments() throws Exception {
+        when(orderProcessingService.writesJsonFragments()).thenReturn(true);
+        when(orderProcessingService.datasetTag()).thenReturn("a1b2c3d4-7");
+        when(orderProcessingService.streamOrders(any(DateRangeRequest.class), eq(StreamFormat.JSON)))
+                .thenReturn(outputStream -> outputStream.write("[{\"user_id\":1}]".getBytes()));
+
+        for (String path : List.of("/api/orders", "/api/orders/filter")) {
+            mockMvc.perform(get(path).param("startDate", "2021-01-01"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2c3d4-7-json\""))
+                    .andExpect(content().string("[{\"user_id\":1}]"));
+        }
+        verify(orderProcessingService, times(2)).streamOrders(any(DateRangeRequest.class), eq(StreamFormat.JSON));
+        verify(orderProcessingService, never()).getAllOrders();
+        verify(orderProcessingService, never()).getOrdersByDateRange(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should look up a batch of order ids via MockMvc")
+    void testMvcIntegration_LookupOrders() throws Exception {
+        OrderLookupResponse lookup = OrderLookupResponse.builder()
+                .users(mockUserOrdersResponses)
+                .missing_order_ids(List.of(999L))
+                .build();
+        when(orderProcessingService.getOrdersByOrderIds(List.of(123L, 12345L, 999L))).thenReturn(lookup);
+
+        mockMvc.perform(post("/api/orders/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"order_ids\":[123,12345,999]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(2)))
+                .andExpect(jsonPath("$.users[1].orders[0].order_id", is(12345)))
+                .andExpect(jsonPath("$.missing_order_ids[0]", is(999)));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty order id batch")
+    void testMvcIntegration_LookupOrders_RejectsEmptyBatch() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/api/orders/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"order_ids\":[]}"))
+                .andExpect(status().isBadRequest());
+        verify(orderProcessingService, never()).getOrdersByOrderIds(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UserOrdersResponse> users(ResponseEntity<?> response) {
+        return (List<UserOrdersResponse>) response.getBody();
+    }
+}
@@ -0,0 +1,172 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.normalizer.OrderNormalizer;
+import com.challenge.verticallogistics.normalizer.StripedOrderAggregator;
+import com.challenge.verticallogistics.parser.FixedWidthOrderFileParser;
+import com.challenge.verticallogistics.parser.MappedOrderFileParser;
+import com.challenge.verticallogistics.parser.ParallelOrderFileParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderFileParserTest {
+
+    private static final String FILE_CONTENT =
+            "0000000070                              Palmer Prosacco00000007530000000003     1836.7420210308\n" +
+            "0000000075                                  Bobbie Batz00000007980000000002     1578.5720211116\n" +
+            "0000000049                               Ken Wintheiser00000005230000000003      586.7420210903\n" +
+            "0000000070                              Palmer Prosacco00000007530000000004      100.0020210308\r\n" +
+            "0000000070                              Palmer Prosacco00000007540000000001        5.5020210401";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should normalize the same users and orders with the stream and mapped parsers")
+    void testMappedParser_MatchesStreamParser() throws IOException {
+        Path file = tempDir.resolve("orders.txt");
+        Files.writeString(file, FILE_CONTENT, StandardCharsets.UTF_8);
+
+        OrderNormalizer streamNormalizer = new OrderNormalizer();
+        new FixedWidthOrderFileParser().parseOrderFile(
+                new ByteArrayInputStream(FILE_CONTENT.getBytes(StandardCharsets.UTF_8)), streamNormalizer);
+
+        OrderNormalizer mappedNormalizer = new OrderNormalizer();
+        new MappedOrderFileParser().parseOrderFile(file, mappedNormalizer);
+
+        List<User> users = mappedNormalizer.toUsers();
+        assertEquals(streamNormalizer.toUsers(), users);
+        assertEquals(3, users.size());
+
+        User palmer = users.get(0);
+        assertEquals(70L, palmer.getUserId());
+        assertEquals("Palmer Prosacco", palmer.getName());
+        assertEquals(2, palmer.getOrders().size());
+
+        Order order = palmer.getOrders().get(0);
+        assertEquals(753L, order.getOrderId());
+        assertEquals(193674L, order.getTotalCents());
+        assertEquals(LocalDate.of(2021, 3, 8), order.getDate());
+        assertEquals(2, order.getProducts().size());
+    }
+
+    @Test
+    @DisplayName("Should aggregate chunks parsed in parallel into the same result as a sequential parse")
+    void testParallelParser_MatchesSequentialParse() throws IOException {
+        Path file = tempDir.resolve("orders.txt");
+        Files.writeString(file, FILE_CONTENT, StandardCharsets.UTF_8);
+
+        IngestionProperties properties = new IngestionProperties();
+        properties.setChunkSize(DataSize.ofBytes(100));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            OrderNormalizer sequential = new OrderNormalizer();
+            new MappedOrderFileParser().parseOrderFile(file, sequential);
+
+            StripedOrderAggregator parallel = new StripedOrderAggregator(4, new LongAdder());
+            new ParallelOrderFileParser(properties, pool).parseOrderFile(file, parallel::chunk);
+
+            assertEquals(sequential.toUsers(), parallel.toUsers());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should aggregate chunks fed concurrently into the same result as a sequential parse")
+    void testStripedAggregator_MatchesSequentialParse() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            int user = i % 7;
+            content.append(String.format("%010d%45s%010d%010d%12s202103%02d%n",
+                    user, "User " + user, 1000 + user * 10 + i % 3, i, (i % 90) + "." + (10 + i % 90), 1 + i % 28));
+        }
+        Path file = tempDir.resolve("orders.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        IngestionProperties properties = new IngestionProperties();
+        properties.setChunkSize(DataSize.ofBytes(500));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            LongAdder sequentialProgress = new LongAdder();
+            OrderNormalizer sequential = new OrderNormalizer(sequentialProgress);
+            new MappedOrderFileParser().parseOrderFile(file, sequential);
+
+            LongAdder parallelProgress = new LongAdder();
+            StripedOrderAggregator aggregator = new StripedOrderAggregator(4, parallelProgress);
+            new ParallelOrderFileParser(properties, pool).parseOrderFile(file, aggregator::chunk);
+
+            assertEquals(sequential.toUsers(), aggregator.toUsers());
+            assertEquals(sequential.getLineCount(), aggregator.getLineCount());
+            assertEquals(sequential.getUserCount(), aggregator.getUserCount());
+            assertEquals(sequential.getOrderCount(), aggregator.getOrderCount());
+            assertEquals(500L, sequentialProgress.sum());
+            assertEquals(500L, parallelProgress.sum());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the name field as 45 characters when it holds multi-byte UTF-8")
+    void testMappedParser_ReadsMultiByteNames() throws IOException {
+        String line = String.format("%010d%45s%010d%010d%12s%s", 70, "João Silva", 753, 3, "1836.74", "20210308");
+        String outsideBmp = String.format("%010d%45s%010d%010d%12s%s", 71, "Gonçalo 🚚", 754, 4, "1.00", "20210309");
+        Path file = tempDir.resolve("utf8.txt");
+        Files.writeString(file, line + "\n" + line + "\n" + outsideBmp, StandardCharsets.UTF_8);
+
+        OrderNormalizer normalizer = new OrderNormalizer();
+        new MappedOrderFileParser().parseOrderFile(file, normalizer);
+
+        List<User> users = normalizer.toUsers();
+        User user = users.get(0);
+        assertEquals(96, line.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals("João Silva", user.getName());
+        assertEquals(753L, user.getOrders().get(0).getOrderId());
+        assertEquals(367348L, user.getOrders().get(0).getTotalCents());
+        assertEquals(LocalDate.of(2021, 3, 8), user.getOrders().get(0).getDate());
+        assertEquals(2, user.getOrders().get(0).getProducts().size());
+        assertEquals("Gonçalo 🚚", users.get(1).getName());
+        assertEquals(100L, users.get(1).getOrders().get(0).getTotalCents());
+    }
+
+    @Test
+    @DisplayName("Should reject lines shorter than the fixed-width layout")
+    void testMappedParser_RejectsShortLines() throws IOException {
+        Path file = tempDir.resolve("short.txt");
+        Files.writeString(file, "0000000070    Palmer Prosacco\n", StandardCharsets.UTF_8);
+
+        assertThrows(OrderProcessingException.class,
+                () -> new MappedOrderFileParser().parseOrderFile(file, new OrderNormalizer()));
+    }
+
+    @Test
+    @DisplayName("Should reject non-numeric identifiers")
+    void testMappedParser_RejectsInvalidNumbers() throws IOException {
+        Path file = tempDir.resolve("invalid.txt");
+        Files.writeString(file,
+                "00000000X0                              Palmer Prosacco00000007530000000003     1836.7420210308",
+                StandardCharsets.UTF_8);
+
+        assertThrows(OrderProcessingException.class,
+                () -> new MappedOrderFileParser().parseOrderFile(file, new OrderNormalizer()));
+    }
+}
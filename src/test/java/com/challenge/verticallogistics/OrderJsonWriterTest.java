@@ -0,0 +1,137 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.dto.response.OrderResponse;
+import com.challenge.verticallogistics.dto.response.ProductResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import com.challenge.verticallogistics.writer.OrderJsonWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderJsonWriter writer = new OrderJsonWriter(objectMapper);
+
+    private final User user = User.builder()
+            .userId(70L)
+            .name("Palmer Prosacco")
+            .orders(List.of(Order.builder()
+                    .orderId(753L)
+                    .totalCents(193674L)
+                    .date(LocalDate.of(2021, 3, 8))
+                    .products(List.of(
+                            Product.builder().productId(3L).valueCents(183674L).build(),
+                            Product.builder().productId(4L).valueCents(10000L).build()))
+                    .build()))
+            .build();
+
+    private final UserOrdersResponse response = UserOrdersResponse.builder()
+            .user_id(70L)
+            .name("Palmer Prosacco")
+            .orders(List.of(OrderResponse.builder()
+                    .order_id(753L)
+                    .total("1936.74")
+                    .date("2021-03-08")
+                    .products(List.of(
+                            ProductResponse.builder().product_id(3L).value("1836.74").build(),
+                            ProductResponse.builder().product_id(4L).value("100.00").build()))
+                    .build()))
+            .build();
+
+    @Test
+    @DisplayName("Should stream the same JSON array as serializing the response DTOs")
+    void testWriteArray_MatchesDtoSerialization() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writer.writeArray(List.of(user, user), output);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(response, response)),
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should stream one user per line as NDJSON")
+    void testWriteNdjson_WritesOneUserPerLine() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writer.writeNdjson(List.of(user, user), output);
+
+        String line = objectMapper.writeValueAsString(response);
+        assertEquals(line + "\n" + line + "\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should stream CBOR with cents and epoch days and a smaller payload than JSON")
+    void testWriteCbor_WritesNumericValues() throws IOException {
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        writer.writeCbor(List.of(user, user), cbor);
+        writer.writeArray(List.of(user, user), json);
+
+        JsonNode users = new CBORMapper().readTree(cbor.toByteArray());
+        assertEquals(2, users.size());
+        JsonNode order = users.get(0).get("orders").get(0);
+        assertEquals(70L, users.get(0).get("user_id").asLong());
+        assertEquals("Palmer Prosacco", users.get(0).get("name").asText());
+        assertEquals(753L, order.get("order_id").asLong());
+        assertEquals(193674L, order.get("total_cents").asLong());
+        assertEquals(LocalDate.of(2021, 3, 8).toEpochDay(), order.get("epoch_day").asLong());
+        assertEquals(183674L, order.get("products").get(0).get("value_cents").asLong());
+        assertTrue(cbor.size() < json.size());
+    }
+
+    @Test
+    @DisplayName("Should write orders built with fragments byte for byte like freshly encoded orders")
+    void testWithFragments_KeepsOutputUnchanged() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (long productId = 1; productId <= 1000; productId++) {
+            products.add(Product.builder().productId(productId).valueCents(productId * 101).build());
+        }
+        User large = User.builder()
+                .userId(71L)
+                .name("Bobbie Batz")
+                .orders(List.of(Order.builder()
+                        .orderId(798L)
+                        .totalCents(products.stream().mapToLong(Product::getValueCents).sum())
+                        .date(LocalDate.of(2021, 11, 16))
+                        .products(products)
+                        .build()))
+                .build();
+        List<User> users = List.of(user, large, user);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ByteArrayOutputStream encodedNdjson = new ByteArrayOutputStream();
+        writer.writeArray(users, encoded);
+        writer.writeNdjson(users, encodedNdjson);
+
+        List<User> withFragments = writer.withFragments(users);
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        ByteArrayOutputStream copiedNdjson = new ByteArrayOutputStream();
+        writer.writeArray(withFragments, copied);
+        writer.writeNdjson(withFragments, copiedNdjson);
+
+        assertNotNull(withFragments.get(0).getOrders().get(0).getJsonFragment());
+        assertNull(user.getOrders().get(0).getJsonFragment());
+        assertEquals(users, withFragments);
+        assertEquals(encoded.toString(StandardCharsets.UTF_8), copied.toString(StandardCharsets.UTF_8));
+        assertEquals(encodedNdjson.toString(StandardCharsets.UTF_8), copiedNdjson.toString(StandardCharsets.UTF_8));
+    }
+}
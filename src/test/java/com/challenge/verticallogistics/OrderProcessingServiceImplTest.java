@@ -0,0 +1,270 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.cache.OrderQueryCache;
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.config.QueryCacheProperties;
+import com.challenge.verticallogistics.dto.request.DateRangeRequest;
+import com.challenge.verticallogistics.dto.response.OrderLookupResponse;
+import com.challenge.verticallogistics.dto.response.UserOrdersResponse;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.metrics.OrderMetrics;
+import com.challenge.verticallogistics.parser.FixedWidthOrderFileParser;
+import com.challenge.verticallogistics.parser.MappedOrderFileParser;
+import com.challenge.verticallogistics.parser.ParallelOrderFileParser;
+import com.challenge.verticallogistics.repository.ColumnarOrderRepository;
+import com.challenge.verticallogistics.repository.InMemoryOrderRepository;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.service.impl.OrderProcessingServiceImpl;
+import com.challenge.verticallogistics.writer.OrderJsonWriter;
+import com.challenge.verticallogistics.writer.StreamFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderProcessingServiceImplTest {
+
+    private static final String FILE_CONTENT =
+            "0000000070                              Palmer Prosacco00000007530000000003     1836.7420210308\n" +
+            "0000000075                                  Bobbie Batz00000007980000000002     1578.5720211116\n" +
+            "0000000049                               Ken Wintheiser00000005230000000003      586.7420210903\n" +
+            "0000000070                              Palmer Prosacco00000007530000000004      100.0020210308\n";
+
+    private IngestionProperties ingestionProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ForkJoinPool pool;
+    private InMemoryOrderRepository repository;
+    private OrderProcessingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        ingestionProperties = new IngestionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new ForkJoinPool(2);
+        repository = new InMemoryOrderRepository();
+        service = new OrderProcessingServiceImpl(
+                new FixedWidthOrderFileParser(),
+                new MappedOrderFileParser(),
+                new ParallelOrderFileParser(ingestionProperties, pool),
+                repository,
+                ingestionProperties,
+                new OrderJsonWriter(new ObjectMapper()),
+                new OrderMetrics(meterRegistry, repository),
+                new OrderQueryCache(repository, new QueryCacheProperties(), meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(IngestionProperties.ParserMode.class)
+    @DisplayName("Should normalize, store and return the uploaded orders with every parser mode")
+    void testProcessOrderFile_NormalizesAndStoresOrders(IngestionProperties.ParserMode parserMode) {
+        ingestionProperties.setParser(parserMode);
+
+        List<UserOrdersResponse> response = service.processOrderFile(file(), UploadMode.REPLACE);
+
+        assertEquals(3, response.size());
+        UserOrdersResponse palmer = response.get(0);
+        assertEquals(70L, palmer.getUser_id());
+        assertEquals("Palmer Prosacco", palmer.getName());
+        assertEquals("1936.74", palmer.getOrders().get(0).getTotal());
+        assertEquals("2021-03-08", palmer.getOrders().get(0).getDate());
+        assertEquals(2, palmer.getOrders().get(0).getProducts().size());
+
+        assertEquals(response, service.getAllOrders());
+        assertEquals(1, service.getOrdersByOrderId(798L).size());
+        assertEquals(2, service.getOrdersByDateRange(LocalDate.of(2021, 9, 1), null).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(IngestionProperties.ParserMode.class)
+    @DisplayName("Should accept names with accented characters with every parser mode")
+    void testProcessOrderFile_AcceptsAccentedNames(IngestionProperties.ParserMode parserMode) {
+        ingestionProperties.setParser(parserMode);
+        String content = String.format("%010d%45s%010d%010d%12s%s%n", 80, "João Silva", 900, 1, "1836.74", "20210308")
+                + String.format("%010d%45s%010d%010d%12s%s%n", 81, "Conceição Araújo", 901, 2, "100.00", "20210309")
+                + String.format("%010d%45s%010d%010d%12s%s%n", 80, "João Silva", 900, 3, "10.00", "20210308");
+
+        List<UserOrdersResponse> response = service.processOrderFile(new MockMultipartFile("file", "orders.txt",
+                MediaType.TEXT_PLAIN_VALUE, content.getBytes(StandardCharsets.UTF_8)), UploadMode.REPLACE);
+
+        assertEquals(2, response.size());
+        assertEquals("João Silva", response.get(0).getName());
+        assertEquals("1846.74", response.get(0).getOrders().get(0).getTotal());
+        assertEquals("Conceição Araújo", response.get(1).getName());
+        assertEquals("2021-03-09", response.get(1).getOrders().get(0).getDate());
+    }
+
+    @Test
+    @DisplayName("Should merge an appended file into the stored orders")
+    void testProcessOrderFile_AppendMergesIntoStoredOrders() {
+        service.processOrderFile(file(), UploadMode.REPLACE);
+        service.processOrderFile(new MockMultipartFile("file", "more.txt", MediaType.TEXT_PLAIN_VALUE, (
+                "0000000070                              Palmer Prosacco00000007530000000005       10.0020210310\n" +
+                "0000000001                                      Zarelli00000001230000000111      512.2420211201\n"
+        ).getBytes(StandardCharsets.UTF_8)), UploadMode.APPEND);
+
+        List<UserOrdersResponse> all = service.getAllOrders();
+        assertEquals(4, all.size());
+        assertEquals(1L, all.get(3).getUser_id());
+
+        UserOrdersResponse palmer = service.getOrdersByOrderId(753L).get(0);
+        assertEquals("1946.74", palmer.getOrders().get(0).getTotal());
+        assertEquals("2021-03-08", palmer.getOrders().get(0).getDate());
+        assertEquals(3, palmer.getOrders().get(0).getProducts().size());
+    }
+
+    @Test
+    @DisplayName("Should stream the same JSON from fragments encoded at upload")
+    void testWriteOrders_UsesFragmentsEncodedAtUpload() throws IOException {
+        ingestionProperties.setJsonFragments(true);
+        service.processOrderFile(file(), UploadMode.REPLACE);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.streamOrders(new DateRangeRequest(), StreamFormat.JSON).writeTo(output);
+
+        assertTrue(service.writesJsonFragments());
+        assertNotNull(repository.findAll().get(0).getOrders().get(0).getJsonFragment());
+        assertEquals(new ObjectMapper().writeValueAsString(service.getAllOrders()),
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should skip encoding fragments for repositories that copy the uploaded orders")
+    void testProcessOrderFile_SkipsFragmentsForColumnarRepository() {
+        ingestionProperties.setJsonFragments(true);
+        ColumnarOrderRepository columnar = new ColumnarOrderRepository();
+        OrderProcessingServiceImpl columnarService = new OrderProcessingServiceImpl(
+                new FixedWidthOrderFileParser(),
+                new MappedOrderFileParser(),
+                new ParallelOrderFileParser(ingestionProperties, pool),
+                columnar,
+                ingestionProperties,
+                new OrderJsonWriter(new ObjectMapper()),
+                new OrderMetrics(meterRegistry, columnar),
+                new OrderQueryCache(columnar, new QueryCacheProperties(), meterRegistry));
+
+        columnarService.processOrderFile(file(), UploadMode.REPLACE);
+        assertFalse(columnarService.writesJsonFragments());
+
+        assertEquals(3, columnar.findAll().size());
+        assertNull(meterRegistry.find("orders.ingestion.duration").tag("stage", "encode").timer());
+    }
+
+    @Test
+    @DisplayName("Should resolve a batch of order ids and report the missing ones")
+    void testGetOrdersByOrderIds_ReportsMissingIds() {
+        service.processOrderFile(file(), UploadMode.REPLACE);
+
+        OrderLookupResponse response = service.getOrdersByOrderIds(List.of(798L, 999L, 753L, 798L));
+
+        assertEquals(2, response.getUsers().size());
+        assertEquals(List.of(999L), response.getMissing_order_ids());
+        assertEquals(2, response.getUsers().stream()
+                .filter(user -> user.getUser_id() == 70L)
+                .findFirst().orElseThrow()
+                .getOrders().get(0).getProducts().size());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated queries from the cache until the next upload")
+    void testQueries_CachedUntilNextUpload() {
+        service.processOrderFile(file(), UploadMode.REPLACE);
+
+        List<UserOrdersResponse> first = service.getOrdersByDateRange(LocalDate.of(2021, 9, 1), null);
+        assertSame(first, service.getOrdersByDateRange(LocalDate.of(2021, 9, 1), null));
+        assertNotSame(first, service.getOrdersByDateRange(LocalDate.of(2021, 9, 2), null));
+        assertSame(service.getAllOrders(), service.getAllOrders());
+
+        service.processOrderFile(new MockMultipartFile("file", "other.txt", MediaType.TEXT_PLAIN_VALUE,
+                "0000000001                                      Zarelli00000001230000000111      512.2420211201\n"
+                        .getBytes(StandardCharsets.UTF_8)), UploadMode.REPLACE);
+
+        List<UserOrdersResponse> afterUpload = service.getOrdersByDateRange(LocalDate.of(2021, 9, 1), null);
+        assertEquals(1, afterUpload.size());
+        assertEquals(1L, afterUpload.get(0).getUser_id());
+        assertEquals(1, service.getAllOrders().size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(IngestionProperties.ParserMode.class)
+    @DisplayName("Should record ingestion and query metrics")
+    void testProcessOrderFile_RecordsMetrics(IngestionProperties.ParserMode parserMode) {
+        ingestionProperties.setParser(parserMode);
+
+        service.processOrderFile(file(), UploadMode.REPLACE);
+        service.getOrdersByOrderId(753L);
+
+        assertEquals(4.0, meterRegistry.get("orders.ingestion.lines").counter().count());
+        assertEquals(FILE_CONTENT.length(), meterRegistry.get("orders.ingestion.bytes").counter().count());
+        assertEquals(3.0, meterRegistry.get("orders.ingestion.orders").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("orders.ingestion.duration").tag("stage", "parse").timer().count());
+        assertEquals(3.0, meterRegistry.get("orders.repository.users").gauge().value());
+        assertEquals(1, meterRegistry.get("orders.query.duration").tag("type", "order_id").timer().count());
+        assertEquals(1.0, meterRegistry.get("orders.query.users").tag("type", "order_id").summary().totalAmount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(IngestionProperties.ParserMode.class)
+    @DisplayName("Should decompress gzip and zstd uploads detected from their magic bytes")
+    void testProcessOrderFile_DecompressesUploads(IngestionProperties.ParserMode parserMode) throws IOException {
+        ingestionProperties.setParser(parserMode);
+        List<UserOrdersResponse> plain = service.processOrderFile(file(), UploadMode.REPLACE);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(gzip)) {
+            output.write(FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream output = new ZstdOutputStream(zstd)) {
+            output.write(FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(plain, service.processOrderFile(new MockMultipartFile("file", "orders.gz",
+                "application/gzip", gzip.toByteArray()), UploadMode.REPLACE));
+        assertEquals(plain, service.processOrderFile(new MockMultipartFile("file", "orders.zst",
+                MediaType.APPLICATION_OCTET_STREAM_VALUE, zstd.toByteArray()), UploadMode.REPLACE));
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated compressed upload")
+    void testProcessOrderFile_RejectsCorruptCompressedUpload() {
+        byte[] corrupt = {0x1F, (byte) 0x8B, 8, 0, 0, 0};
+
+        assertThrows(OrderProcessingException.class, () -> service.processOrderFile(
+                new MockMultipartFile("file", "orders.gz", "application/gzip", corrupt), UploadMode.REPLACE));
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "orders.txt", MediaType.TEXT_PLAIN_VALUE,
+                FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.controller.OrderStatisticsController;
+import com.challenge.verticallogistics.dto.response.RevenueResponse;
+import com.challenge.verticallogistics.dto.response.TopProductResponse;
+import com.challenge.verticallogistics.exception.GlobalExceptionHandler;
+import com.challenge.verticallogistics.model.ProductRanking;
+import com.challenge.verticallogistics.model.RevenueGranularity;
+import com.challenge.verticallogistics.service.OrderStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class OrderStatisticsControllerTest {
+
+    @Mock
+    private OrderStatisticsService orderStatisticsService;
+
+    @InjectMocks
+    private OrderStatisticsController orderStatisticsController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(orderStatisticsController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return monthly revenue for the requested range")
+    void testGetRevenue_ByMonth() throws Exception {
+        when(orderStatisticsService.getRevenue(LocalDate.of(2021, 1, 1), null, RevenueGranularity.MONTH))
+                .thenReturn(List.of(new RevenueResponse("2021-12", "522.24", 2L)));
+
+        mockMvc.perform(get("/api/orders/stats/revenue")
+                        .param("startDate", "2021-01-01")
+                        .param("granularity", "MONTH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].period", is("2021-12")))
+                .andExpect(jsonPath("$[0].total", is("522.24")));
+    }
+
+    @Test
+    @DisplayName("Should rank products with the requested criterion and default limit")
+    void testGetTopProducts_ByCount() throws Exception {
+        when(orderStatisticsService.getTopProducts(null, null, 10, ProductRanking.COUNT))
+                .thenReturn(List.of(new TopProductResponse(1L, "778.48", 3L)));
+
+        mockMvc.perform(get("/api/orders/stats/top-products").param("by", "COUNT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].product_id", is(1)))
+                .andExpect(jsonPath("$[0].count", is(3)));
+    }
+
+    @Test
+    @DisplayName("Should reject a limit outside the allowed range")
+    void testGetTopUsers_InvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/orders/stats/top-users").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderStatisticsService, never()).getTopUsers(any(), any(), anyInt());
+    }
+}
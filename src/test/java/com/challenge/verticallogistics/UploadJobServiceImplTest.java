@@ -0,0 +1,144 @@
+package com.challenge.verticallogistics;
+
+import com.challenge.verticallogistics.config.IngestionConfig;
+import com.challenge.verticallogistics.config.IngestionProperties;
+import com.challenge.verticallogistics.dto.response.UploadJobResponse;
+import com.challenge.verticallogistics.exception.OrderProcessingException;
+import com.challenge.verticallogistics.model.UploadSummary;
+import com.challenge.verticallogistics.service.OrderProcessingService;
+import com.challenge.verticallogistics.service.UploadMode;
+import com.challenge.verticallogistics.service.impl.UploadJobServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadJobServiceImplTest {
+
+    private OrderProcessingService orderProcessingService;
+    private ThreadPoolExecutor executor;
+    private UploadJobServiceImpl uploadJobService;
+
+    @BeforeEach
+    void setUp() {
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        ingestionProperties.getJobs().setQueueCapacity(1);
+        orderProcessingService = mock(OrderProcessingService.class);
+        executor = new IngestionConfig().uploadJobExecutor(ingestionProperties);
+        uploadJobService = new UploadJobServiceImpl(orderProcessingService, executor, ingestionProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run the upload in the background and report its result")
+    void testSubmit_CompletesJobInBackground() throws Exception {
+        AtomicReference<Path> spooled = new AtomicReference<>();
+        when(orderProcessingService.importOrderFile(any(Path.class), eq(UploadMode.APPEND), any(LongAdder.class)))
+                .thenAnswer(invocation -> {
+                    spooled.set(invocation.getArgument(0));
+                    assertEquals("content", Files.readString(spooled.get()));
+                    return new UploadSummary(4, 3, 2);
+                });
+
+        UploadJobResponse submitted = uploadJobService.submit(file(), UploadMode.APPEND);
+        assertNotNull(submitted.getJob_id());
+        assertEquals("APPEND", submitted.getMode());
+        assertEquals(7L, submitted.getBytes());
+
+        UploadJobResponse finished = awaitFinished(submitted.getJob_id());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(4L, finished.getLines_processed());
+        assertEquals(3L, finished.getUsers());
+        assertEquals(2L, finished.getOrders());
+        assertNotNull(finished.getLines_per_second());
+        assertFalse(Files.exists(spooled.get()));
+    }
+
+    @Test
+    @DisplayName("Should report the error of a failed upload")
+    void testSubmit_ReportsFailure() throws Exception {
+        when(orderProcessingService.importOrderFile(any(Path.class), eq(UploadMode.REPLACE), any(LongAdder.class)))
+                .thenThrow(new OrderProcessingException("Line 1 is too short"));
+
+        UploadJobResponse finished = awaitFinished(uploadJobService.submit(file(), UploadMode.REPLACE).getJob_id());
+
+        assertEquals("FAILED", finished.getStatus());
+        assertEquals("Line 1 is too short", finished.getError());
+    }
+
+    @Test
+    @DisplayName("Should mark the job failed when the upload throws an Error")
+    void testSubmit_ReportsError() throws Exception {
+        when(orderProcessingService.importOrderFile(any(Path.class), eq(UploadMode.REPLACE), any(LongAdder.class)))
+                .thenThrow(new OutOfMemoryError("Java heap space"));
+
+        UploadJobResponse finished = awaitFinished(uploadJobService.submit(file(), UploadMode.REPLACE).getJob_id());
+
+        assertEquals("FAILED", finished.getStatus());
+        assertEquals("java.lang.OutOfMemoryError: Java heap space", finished.getError());
+    }
+
+    @Test
+    @DisplayName("Should reject uploads once the job queue is full")
+    void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderProcessingService.importOrderFile(any(Path.class), any(UploadMode.class), any(LongAdder.class)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return new UploadSummary(0, 0, 0);
+                });
+
+        uploadJobService.submit(file(), UploadMode.REPLACE);
+        uploadJobService.submit(file(), UploadMode.REPLACE);
+
+        assertThrows(RejectedExecutionException.class, () -> uploadJobService.submit(file(), UploadMode.REPLACE));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should not find unknown jobs")
+    void testFindJob_UnknownJob() {
+        assertTrue(uploadJobService.findJob("missing").isEmpty());
+    }
+
+    private UploadJobResponse awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            UploadJobResponse job = uploadJobService.findJob(jobId).orElseThrow();
+            if (job.getStatus().equals("COMPLETED") || job.getStatus().equals("FAILED")) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "orders.txt", MediaType.TEXT_PLAIN_VALUE, "content".getBytes());
+    }
+}
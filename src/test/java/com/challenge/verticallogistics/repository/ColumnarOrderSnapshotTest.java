@@ -0,0 +1,151 @@
+package com.challenge.verticallogistics.repository;
+
+import com.challenge.verticallogistics.model.Order;
+import com.challenge.verticallogistics.model.OrderPage;
+import com.challenge.verticallogistics.model.Product;
+import com.challenge.verticallogistics.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarOrderSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should map a snapshot file without rolling up its statistics")
+    void testMap_DefersStatistics() throws IOException {
+        User user = User.builder()
+                .userId(7L)
+                .name("Palmer Prosacco")
+                .orders(List.of(Order.builder()
+                        .orderId(753L)
+                        .date(LocalDate.of(2021, 3, 8))
+                        .totalCents(193674L)
+                        .products(List.of(
+                                Product.builder().productId(3L).valueCents(183674L).build(),
+                                Product.builder().productId(4L).valueCents(10000L).build()))
+                        .build()))
+                .build();
+        Path file = tempDir.resolve("orders.snapshot");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ColumnarOrderSnapshot.of(List.of(user)).writeTo(channel);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ColumnarOrderSnapshot mapped = ColumnarOrderSnapshot.map(channel);
+
+            assertEquals(List.of(user), mapped.users());
+            assertFalse(mapped.hasStatistics());
+
+            OrderStatistics statistics = mapped.statistics();
+            assertTrue(mapped.hasStatistics());
+            assertSame(statistics, mapped.statistics());
+        }
+    }
+
+    @Test
+    @DisplayName("Should merge appended users without materialising the untouched ones")
+    void testWithMerged_CopiesUntouchedUsers() throws IOException {
+        Path file = tempDir.resolve("orders.snapshot");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ColumnarOrderSnapshot.of(List.of(
+                    user(1L, "Zarelli", order(123L, 2021, 12, 1, 51200L)),
+                    user(2L, "Medeiros", order(12345L, 2020, 12, 1, 25600L)))).writeTo(channel);
+            // Point the first user at a name that does not exist: materialising it would fail
+            channel.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 99),
+                    32 + 2 * Long.BYTES);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ColumnarOrderSnapshot merged = ColumnarOrderSnapshot.map(channel)
+                    .withMerged(List.of(user(2L, "Medeiros", order(12346L, 2021, 1, 5, 1000L))));
+
+            assertEquals(2, merged.users().size());
+            assertEquals(List.of(user(2L, "Medeiros",
+                            order(12345L, 2020, 12, 1, 25600L), order(12346L, 2021, 1, 5, 1000L))),
+                    merged.findByOrderIds(List.of(12345L, 12346L)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace users in place and keep the sort indexes as a rebuild would")
+    void testWithUsers_MatchesRebuild() {
+        List<User> stored = List.of(
+                user(1L, "Zarelli", order(123L, 2021, 12, 1, 51200L), order(9L, 2021, 3, 8, 100L)),
+                user(2L, "Medeiros", order(12345L, 2020, 12, 1, 25600L)),
+                user(3L, "Palmer Prosacco", order(9L, 2021, 3, 8, 700L), order(753L, 2021, 3, 8, 1000L)));
+        List<User> replacements = List.of(
+                user(4L, "Bobbie Batz", order(9L, 2021, 3, 8, 300L), order(1L, 2020, 1, 1, 50L)),
+                user(2L, "Medeiros Jr", order(12345L, 2020, 12, 1, 25600L), order(10L, 2021, 3, 8, 10L)));
+
+        ColumnarOrderSnapshot merged = ColumnarOrderSnapshot.of(stored).withUsers(replacements);
+        ColumnarOrderSnapshot rebuilt = ColumnarOrderSnapshot.of(List.of(
+                stored.get(0), replacements.get(1), stored.get(2), replacements.get(0)));
+
+        assertEquals(rebuilt.users(), merged.users());
+        assertEquals(rebuilt.findByOrderId(9L), merged.findByOrderId(9L));
+        assertEquals(rebuilt.findByOrderIds(List.of(1L, 10L, 123L)), merged.findByOrderIds(List.of(1L, 10L, 123L)));
+        assertEquals(rebuilt.findByDateRange(null, null), merged.findByDateRange(null, null));
+        assertEquals(rebuilt.findByDateRange(LocalDate.of(2021, 3, 8), LocalDate.of(2021, 3, 8)),
+                merged.findByDateRange(LocalDate.of(2021, 3, 8), LocalDate.of(2021, 3, 8)));
+        assertEquals(rebuilt.findPage(null, 10), merged.findPage(null, 10));
+        assertEquals(rebuilt.findPageByDateRange(null, null, null, 10), merged.findPageByDateRange(null, null, null, 10));
+    }
+
+    @Test
+    @DisplayName("Should resume pages after the cursor in key and date order")
+    void testFindPage_ResumesAfterCursor() {
+        ColumnarOrderSnapshot snapshot = ColumnarOrderSnapshot.of(List.of(
+                user(3L, "Palmer Prosacco", order(753L, 2021, 3, 8, 1000L), order(9L, 2021, 3, 8, 700L)),
+                user(1L, "Zarelli", order(123L, 2021, 12, 1, 51200L), order(9L, 2021, 3, 8, 100L)),
+                user(2L, "Medeiros", order(12345L, 2020, 12, 1, 25600L))));
+
+        OrderPage first = snapshot.findPage(null, 2);
+        assertEquals(List.of(user(1L, "Zarelli", order(9L, 2021, 3, 8, 100L), order(123L, 2021, 12, 1, 51200L))),
+                first.getUsers());
+        OrderPage second = snapshot.findPage(first.getNext(), 2);
+        assertEquals(List.of(user(2L, "Medeiros", order(12345L, 2020, 12, 1, 25600L)),
+                user(3L, "Palmer Prosacco", order(9L, 2021, 3, 8, 700L))), second.getUsers());
+        OrderPage last = snapshot.findPage(second.getNext(), 2);
+        assertEquals(List.of(user(3L, "Palmer Prosacco", order(753L, 2021, 3, 8, 1000L))), last.getUsers());
+        assertNull(last.getNext());
+
+        OrderPage byDate = snapshot.findPageByDateRange(LocalDate.of(2021, 1, 1), null, null, 2);
+        assertEquals(List.of(user(1L, "Zarelli", order(9L, 2021, 3, 8, 100L)),
+                user(3L, "Palmer Prosacco", order(9L, 2021, 3, 8, 700L))), byDate.getUsers());
+        OrderPage nextByDate = snapshot.findPageByDateRange(LocalDate.of(2021, 1, 1), null, byDate.getNext(), 2);
+        assertEquals(List.of(user(3L, "Palmer Prosacco", order(753L, 2021, 3, 8, 1000L)),
+                user(1L, "Zarelli", order(123L, 2021, 12, 1, 51200L))), nextByDate.getUsers());
+        assertNull(nextByDate.getNext());
+    }
+
+    private static User user(long userId, String name, Order... orders) {
+        return User.builder().userId(userId).name(name).orders(List.of(orders)).build();
+    }
+
+    private static Order order(long orderId, int year, int month, int day, long totalCents) {
+        return Order.builder()
+                .orderId(orderId)
+                .date(LocalDate.of(year, month, day))
+                .totalCents(totalCents)
+                .products(List.of(Product.builder().productId(orderId % 7).valueCents(totalCents).build()))
+                .build();
+    }
+}